@@ -0,0 +1,19 @@
+package com.ivancroce.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+// rate-limit.* in application.properties: one token bucket per client and route, at most maxClients buckets
+@ConfigurationProperties(prefix = "rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("10m") Duration idleEviction,
+        @DefaultValue("100000") int maxClients,
+        @DefaultValue List<Route> routes
+) {
+    // capacity requests in a burst, refilled evenly over refillPeriod
+    public record Route(String method, String path, int capacity, Duration refillPeriod) {}
+}
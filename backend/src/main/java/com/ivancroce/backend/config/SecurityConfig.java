@@ -1,5 +1,11 @@
 package com.ivancroce.backend.config;
 
+import com.ivancroce.backend.security.JWTCheckerFilter;
+import com.ivancroce.backend.security.RateLimitFilter;
+import com.ivancroce.backend.security.RouteClassifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.Customizer;
@@ -10,6 +16,7 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -20,26 +27,49 @@ import java.util.List;
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
+@EnableConfigurationProperties(RateLimitProperties.class)
 public class SecurityConfig {
 
+    // Changing the strength re-hashes each user's password on their next successful login
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    public PasswordEncoder passwordEncoder(@Value("${security.bcrypt.strength:12}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity, JWTCheckerFilter jwtCheckerFilter,
+                                                   RateLimitFilter rateLimitFilter, RouteClassifier routeClassifier) throws Exception {
 
         httpSecurity.formLogin(formLogin -> formLogin.disable());
         httpSecurity.csrf(csrf -> csrf.disable());
         httpSecurity.sessionManagement((sessions -> sessions.sessionCreationPolicy(SessionCreationPolicy.STATELESS)));
+        // Same route table as the JWT filter; role checks stay in @PreAuthorize
         httpSecurity.authorizeHttpRequests((authorized -> authorized
-                .requestMatchers("/**").permitAll()));
+                .requestMatchers(request -> routeClassifier.isPublic(request)).permitAll()
+                .anyRequest().authenticated()));
+        httpSecurity.addFilterBefore(jwtCheckerFilter, UsernamePasswordAuthenticationFilter.class);
+        // Rate limits apply before the token is even looked at
+        httpSecurity.addFilterBefore(rateLimitFilter, JWTCheckerFilter.class);
 
         httpSecurity.cors(Customizer.withDefaults());
         return httpSecurity.build();
     }
 
+    // The JWT and rate-limit filters run inside the security chain only, not a second time as plain servlet filters
+    @Bean
+    public FilterRegistrationBean<JWTCheckerFilter> jwtCheckerFilterRegistration(JWTCheckerFilter jwtCheckerFilter) {
+        FilterRegistrationBean<JWTCheckerFilter> registration = new FilterRegistrationBean<>(jwtCheckerFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter rateLimitFilter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -0,0 +1,87 @@
+package com.ivancroce.backend.controllers;
+
+import com.ivancroce.backend.payloads.CacheStatsDTO;
+import com.ivancroce.backend.payloads.ImportJobDTO;
+import com.ivancroce.backend.payloads.PasswordHashingStatsDTO;
+import com.ivancroce.backend.payloads.TokenVerificationStatsDTO;
+import com.ivancroce.backend.services.AffinityReportService;
+import com.ivancroce.backend.services.BachelorProgramService;
+import com.ivancroce.backend.services.CountryService;
+import com.ivancroce.backend.services.ImportJobService;
+import com.ivancroce.backend.services.PasswordHashingService;
+import com.ivancroce.backend.tools.JWTTools;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    @Autowired
+    private CountryService countryService;
+
+    @Autowired
+    private BachelorProgramService bachelorProgramService;
+
+    @Autowired
+    private AffinityReportService affinityReportService;
+
+    @Autowired
+    private JWTTools jwtTools;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private ImportJobService importJobService;
+
+    @Operation(summary = "Get cache statistics (Admin)", description = "Returns size, hit and miss counters of the in-process caches. Admin only.")
+    @GetMapping("/caches")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public List<CacheStatsDTO> getCacheStats() {
+        List<CacheStatsDTO> stats = new ArrayList<>();
+        stats.addAll(countryService.cacheStats());
+        stats.addAll(bachelorProgramService.cacheStats());
+        stats.addAll(affinityReportService.cacheStats());
+        return stats;
+    }
+
+    @Operation(summary = "Get token verification statistics (Admin)", description = "Returns how many JWTs were fully verified, served from the verified-token cache or rejected since startup. Admin only.")
+    @GetMapping("/token-stats")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public TokenVerificationStatsDTO getTokenStats() {
+        return new TokenVerificationStatsDTO(jwtTools.verificationCount(), jwtTools.cacheHitCount(),
+                jwtTools.failureCount(), jwtTools.cachedTokenCount());
+    }
+
+    @Operation(summary = "Get password hashing statistics (Admin)", description = "Returns the BCrypt pool size, active threads, queue depth, rejections and hash latency. Admin only.")
+    @GetMapping("/password-hashing")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public PasswordHashingStatsDTO getPasswordHashingStats() {
+        return passwordHashingService.stats();
+    }
+
+    @Operation(summary = "Upload a new matrix workbook (Admin)", description = "Stores the uploaded .xlsx and imports it in the background. Returns the job to poll; 429 when another import is already queued. Admin only.")
+    @PostMapping(value = "/imports", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ImportJobDTO startImport(@RequestParam("file") MultipartFile file) {
+        return importJobService.submit(file);
+    }
+
+    @Operation(summary = "Get import progress (Admin)", description = "Returns the status of an import job with rows parsed, rows written and errors so far. Admin only.")
+    @GetMapping("/imports/{jobId}")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ImportJobDTO getImport(@PathVariable UUID jobId) {
+        return importJobService.findById(jobId);
+    }
+}
@@ -0,0 +1,67 @@
+package com.ivancroce.backend.controllers;
+
+import com.ivancroce.backend.exceptions.ValidationException;
+import com.ivancroce.backend.payloads.AffinityBatchRequest;
+import com.ivancroce.backend.payloads.AffinityRespDTO;
+import com.ivancroce.backend.services.AffinityReportService;
+import com.ivancroce.backend.services.AffinityService;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/affinity")
+public class AffinityController {
+
+    @Autowired
+    private AffinityService affinityService;
+
+    @Autowired
+    private AffinityReportService affinityReportService;
+
+    // --- PUBLIC ENDPOINTS ---
+
+    @Operation(summary = "Compare two countries", description = "Returns both countries with their representative program, the affinity level for each category and the overall affinity percentage.")
+    @GetMapping("/{countryA}/{countryB}")
+    public AffinityRespDTO compareCountries(@PathVariable Long countryA, @PathVariable Long countryB) {
+        return affinityService.compare(countryA, countryB);
+    }
+
+    @Operation(summary = "Download affinity report as PDF", description = "Renders the comparison of two countries as a vector PDF. Rendered reports are cached until either country or its programs change.")
+    @GetMapping("/{countryA}/{countryB}/report.pdf")
+    public ResponseEntity<byte[]> getReportPdf(@PathVariable Long countryA, @PathVariable Long countryB) {
+        byte[] pdf = affinityReportService.getReportPdf(countryA, countryB);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("affinity-report-" + countryA + "-vs-" + countryB + ".pdf")
+                        .build().toString())
+                .body(pdf);
+    }
+
+    @Operation(summary = "Compare many pairs", description = "Accepts a list of pairs or a list of country ids (all pairs between them) and streams one JSON result per line (application/x-ndjson).")
+    @PostMapping("/batch")
+    public ResponseEntity<StreamingResponseBody> compareBatch(@Validated @RequestBody AffinityBatchRequest request, BindingResult validationResult) {
+        if (validationResult.hasErrors()) {
+            List<String> errors = validationResult.getFieldErrors().stream()
+                    .map(fieldError -> fieldError.getDefaultMessage())
+                    .toList();
+            throw new ValidationException(errors);
+        }
+        affinityService.validateBatch(request);
+
+        StreamingResponseBody body = out -> affinityService.streamBatch(request, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+}
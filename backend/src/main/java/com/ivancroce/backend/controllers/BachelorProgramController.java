@@ -3,6 +3,8 @@ package com.ivancroce.backend.controllers;
 import com.ivancroce.backend.entities.BachelorProgram;
 import com.ivancroce.backend.exceptions.ValidationException;
 import com.ivancroce.backend.payloads.BachelorRegistrationDTO;
+import com.ivancroce.backend.payloads.CursorPageDTO;
+import com.ivancroce.backend.payloads.ProgramRow;
 import com.ivancroce.backend.services.BachelorProgramService;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,7 +26,7 @@ public class BachelorProgramController {
 
     @GetMapping
     @PreAuthorize("hasAuthority('ADMIN')")
-    public Page<BachelorProgram> getAllPrograms(@RequestParam(defaultValue = "0") int page,
+    public Page<ProgramRow> getAllPrograms(@RequestParam(defaultValue = "0") int page,
                                                 @RequestParam(defaultValue = "10") int size,
                                                 @RequestParam(defaultValue = "id") String sortBy) {
         return bachelorProgramService.findAllPrograms(page, size, sortBy);
@@ -70,7 +72,7 @@ public class BachelorProgramController {
 
     @GetMapping("/search")
     @PreAuthorize("hasAuthority('ADMIN')")
-    public Page<BachelorProgram> searchBachelorPrograms(
+    public Page<ProgramRow> searchBachelorPrograms(
             @RequestParam(required = false) Long countryId,
             @RequestParam(required = false) Integer duration,
             @RequestParam(required = false) Boolean isSpecialProgram,
@@ -81,4 +83,19 @@ public class BachelorProgramController {
     ) {
         return bachelorProgramService.searchBachelorPrograms(countryId, duration, isSpecialProgram, page, size, sortBy, direction);
     }
+
+    // Keyset mode of /search: chosen when "after" is present (empty for the first page)
+    @GetMapping(value = "/search", params = "after")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public CursorPageDTO<ProgramRow> scrollBachelorPrograms(
+            @RequestParam(required = false) Long countryId,
+            @RequestParam(required = false) Integer duration,
+            @RequestParam(required = false) Boolean isSpecialProgram,
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String direction
+    ) {
+        return bachelorProgramService.scrollBachelorPrograms(countryId, duration, isSpecialProgram, after, size, sortBy, direction);
+    }
 }
@@ -3,22 +3,31 @@ package com.ivancroce.backend.controllers;
 import com.ivancroce.backend.entities.BachelorProgram;
 import com.ivancroce.backend.entities.Country;
 import com.ivancroce.backend.exceptions.ValidationException;
+import com.ivancroce.backend.payloads.CompatibleCountryDTO;
+import com.ivancroce.backend.payloads.CountryDetailsDTO;
 import com.ivancroce.backend.payloads.CountryRegistrationDTO;
-import com.ivancroce.backend.payloads.CountryRespDTO;
-import com.ivancroce.backend.repositories.BachelorProgramRepository;
+import com.ivancroce.backend.payloads.CountryRow;
+import com.ivancroce.backend.payloads.CursorPageDTO;
+import com.ivancroce.backend.services.AffinityService;
 import com.ivancroce.backend.services.BachelorProgramService;
 import com.ivancroce.backend.services.CountryService;
+import com.ivancroce.backend.services.DatasetVersionService;
 import io.swagger.v3.oas.annotations.Operation;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/countries")
@@ -31,33 +40,74 @@ public class CountryController {
     private BachelorProgramService bachelorProgramService;
 
     @Autowired
-    private BachelorProgramRepository bachelorProgramRepository;
+    private AffinityService affinityService;
+
+    @Autowired
+    private DatasetVersionService datasetVersionService;
 
     // --- PUBLIC ENDPOINTS ---
+    // The dataset-backed reads carry the dataset version as a strong ETag; a matching If-None-Match
+    // gets a 304 (checkNotModified writes it) before any lookup runs
 
     @Operation(summary = "Get a country by ID", description = "Retrieves a single country's details based on its unique identifier.")
     @GetMapping("/{id}")
-    public Country getCountryById(@PathVariable Long id) {
-        return countryService.findById(id);
+    public ResponseEntity<Country> getCountryById(@PathVariable Long id, WebRequest request) {
+        String eTag = datasetVersionService.eTag();
+        if (request.checkNotModified(eTag)) return null;
+        return versioned(eTag).body(countryService.findById(id));
+    }
+
+    @Operation(summary = "Get countries by IDs", description = "Batch lookup (?ids=1,5,9, at most 50): each country with its representative program and special-program flag, keyed by id. Unknown ids are omitted.")
+    @GetMapping(params = "ids")
+    public ResponseEntity<Map<Long, CountryDetailsDTO>> getCountriesByIds(@RequestParam String ids, WebRequest request) {
+        String eTag = datasetVersionService.eTag();
+        if (request.checkNotModified(eTag)) return null;
+        return versioned(eTag).body(countryService.findDetailsByIds(ids));
     }
 
     @Operation(summary = "Get simple countries list", description = "Returns list of countries for dropdown selection")
     @GetMapping("/simple")
-    public List<CountryRespDTO> getAllCountriesSimple() {
-        return countryService.findAllCountriesSimple();
+    public ResponseEntity<byte[]> getAllCountriesSimple(WebRequest request) {
+        // Pre-serialised bytes, written as-is; the gzip variant is a different representation, so it gets its own ETag
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        String eTag = gzip ? datasetVersionService.eTag("gzip") : datasetVersionService.eTag();
+        if (request.checkNotModified(eTag)) return null;
+        CountryService.SimpleCountriesSnapshot snapshot = countryService.getSimpleCountriesSnapshot();
+        ResponseEntity.BodyBuilder response = versioned(eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzip());
+        }
+        return response.body(snapshot.json());
     }
 
     @Operation(summary = "Get representative program", description = "Get the standard bachelor program for affinity comparison")
     @GetMapping("/{countryId}/representative-program")
-    public BachelorProgram getRepresentativeProgram(@PathVariable Long countryId) {
-        return bachelorProgramService.getRepresentativeProgramForCountry(countryId);
+    public ResponseEntity<BachelorProgram> getRepresentativeProgram(@PathVariable Long countryId, WebRequest request) {
+        String eTag = datasetVersionService.eTag();
+        if (request.checkNotModified(eTag)) return null;
+        return versioned(eTag).body(bachelorProgramService.getRepresentativeProgramForCountry(countryId));
     }
 
     @Operation(summary = "Get special program", description = "Returns true if the country has a special program, (e.g., alternative program durations available) different from the standard bachelor program.")
     @GetMapping("/{countryId}/has-special-program")
-    public ResponseEntity<Boolean> hasSpecialPrograms(@PathVariable Long countryId) {
-        boolean hasSpecial = bachelorProgramRepository.existsByCountryIdAndIsSpecialProgramTrue(countryId);
-        return ResponseEntity.ok(hasSpecial);
+    public ResponseEntity<Boolean> hasSpecialPrograms(@PathVariable Long countryId, WebRequest request) {
+        String eTag = datasetVersionService.eTag();
+        if (request.checkNotModified(eTag)) return null;
+        boolean hasSpecial = bachelorProgramService.hasSpecialProgram(countryId);
+        return versioned(eTag).body(hasSpecial);
+    }
+
+    @Operation(summary = "Get most compatible countries", description = "Ranks every other country by affinity score with the given one. Optional filters apply to the candidate's representative program.")
+    @GetMapping("/{countryId}/most-compatible")
+    public List<CompatibleCountryDTO> getMostCompatibleCountries(@PathVariable Long countryId,
+                                                                 @RequestParam(defaultValue = "5") int k,
+                                                                 @RequestParam(required = false) Integer eqfLevel,
+                                                                 @RequestParam(required = false) Integer duration,
+                                                                 @RequestParam(required = false) Boolean isSpecialProgram) {
+        return affinityService.findMostCompatible(countryId, k, eqfLevel, duration, isSpecialProgram);
     }
 
     // --- ADMIN ENDPOINTS ---
@@ -72,7 +122,7 @@ public class CountryController {
     @Operation(summary = "Get all countries (Paginated)", description = "Retrieves a paginated list of all countries. Admin only.")
     @GetMapping
     @PreAuthorize("hasAuthority('ADMIN')")
-    public Page<Country> getAllCountries(@RequestParam(defaultValue = "0") int page,
+    public Page<CountryRow> getAllCountries(@RequestParam(defaultValue = "0") int page,
                                         @RequestParam(defaultValue = "10") int size,
                                         @RequestParam(defaultValue = "id") String sortBy) {
         return countryService.findAllCountries(page, size, sortBy);
@@ -114,17 +164,48 @@ public class CountryController {
         countryService.deleteCountry(id);
     }
 
-    @Operation(summary = "Search countries (Admin)", description = "Advanced search for countries by ID or schooling years. Admin only.")
+    @Operation(summary = "Search countries (Admin)", description = "Advanced search for countries by ID, schooling years, grading scale range or hours per ECTS. Admin only.")
     @GetMapping("/search")
     @PreAuthorize("hasAuthority('ADMIN')")
-    public Page<Country> searchCountries(
+    public Page<CountryRow> searchCountries(
             @RequestParam(required = false) Long id,
             @RequestParam(required = false) Integer yearsCompulsorySchooling,
+            @RequestParam(required = false) Double gradeMin,
+            @RequestParam(required = false) Double gradeMax,
+            @RequestParam(required = false) Boolean gradeAscending,
+            @RequestParam(required = false) Integer creditHoursMin,
+            @RequestParam(required = false) Integer creditHoursMax,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "name") String sortBy,
             @RequestParam(defaultValue = "asc") String direction
     ) {
-        return countryService.searchCountries(id, yearsCompulsorySchooling, page, size, sortBy, direction);
+        return countryService.searchCountries(id, yearsCompulsorySchooling, gradeMin, gradeMax, gradeAscending,
+                creditHoursMin, creditHoursMax, page, size, sortBy, direction);
+    }
+
+    @Operation(summary = "Search countries by cursor (Admin)", description = "Same filters, keyset pages: start with an empty 'after' and pass each nextCursor back. No total count. Admin only.")
+    @GetMapping(value = "/search", params = "after")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public CursorPageDTO<CountryRow> scrollCountries(
+            @RequestParam(required = false) Long id,
+            @RequestParam(required = false) Integer yearsCompulsorySchooling,
+            @RequestParam(required = false) Double gradeMin,
+            @RequestParam(required = false) Double gradeMax,
+            @RequestParam(required = false) Boolean gradeAscending,
+            @RequestParam(required = false) Integer creditHoursMin,
+            @RequestParam(required = false) Integer creditHoursMax,
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "name") String sortBy,
+            @RequestParam(defaultValue = "asc") String direction
+    ) {
+        return countryService.scrollCountries(id, yearsCompulsorySchooling, gradeMin, gradeMax, gradeAscending,
+                creditHoursMin, creditHoursMax, after, size, sortBy, direction);
+    }
+
+    // Browsers must revalidate, so an admin change is visible on the next load
+    private static ResponseEntity.BodyBuilder versioned(String eTag) {
+        return ResponseEntity.ok().eTag(eTag).cacheControl(CacheControl.noCache());
     }
 }
@@ -0,0 +1,42 @@
+package com.ivancroce.backend.controllers;
+
+import com.ivancroce.backend.exceptions.ValidationException;
+import com.ivancroce.backend.payloads.GradeConversionDTO;
+import com.ivancroce.backend.payloads.TranscriptConversionDTO;
+import com.ivancroce.backend.payloads.TranscriptConversionRequest;
+import com.ivancroce.backend.services.GradeConversionService;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/grades")
+public class GradeController {
+
+    @Autowired
+    private GradeConversionService gradeConversionService;
+
+    // --- PUBLIC ENDPOINTS ---
+
+    @Operation(summary = "Convert a grade", description = "Converts a grade between the grading systems of two countries (by country code, e.g. IT, DE).")
+    @GetMapping("/convert")
+    public GradeConversionDTO convertGrade(@RequestParam String from, @RequestParam String to, @RequestParam String grade) {
+        return gradeConversionService.convert(from, to, grade);
+    }
+
+    @Operation(summary = "Convert a transcript", description = "Converts a list of grades between the grading systems of two countries in one call.")
+    @PostMapping("/convert")
+    public TranscriptConversionDTO convertTranscript(@Validated @RequestBody TranscriptConversionRequest request, BindingResult validationResult) {
+        if (validationResult.hasErrors()) {
+            List<String> errors = validationResult.getFieldErrors().stream()
+                    .map(fieldError -> fieldError.getDefaultMessage())
+                    .toList();
+            throw new ValidationException(errors);
+        }
+        return gradeConversionService.convertTranscript(request);
+    }
+}
@@ -2,10 +2,13 @@ package com.ivancroce.backend.controllers;
 
 import com.ivancroce.backend.entities.User;
 import com.ivancroce.backend.exceptions.ValidationException;
+import com.ivancroce.backend.payloads.CursorPageDTO;
 import com.ivancroce.backend.payloads.UserDetailDTO;
 import com.ivancroce.backend.payloads.UserRegistrationDTO;
 import com.ivancroce.backend.payloads.UserRespDTO;
+import com.ivancroce.backend.payloads.UserRow;
 import com.ivancroce.backend.payloads.UserUpdateDTO;
+import com.ivancroce.backend.security.AuthenticatedUser;
 import com.ivancroce.backend.services.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -44,8 +47,8 @@ public class UserController {
 
     @GetMapping("/me")
     @PreAuthorize("hasAnyAuthority('STUDENT','ADMIN')")
-    public UserDetailDTO getMyProfile(@AuthenticationPrincipal User currentUser) {
-        return UserDetailDTO.from(currentUser);
+    public UserDetailDTO getMyProfile(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return UserDetailDTO.from(userService.findById(currentUser.id()));
     }
 
     @PostMapping
@@ -83,7 +86,7 @@ public class UserController {
 
     @GetMapping("/search")
     @PreAuthorize("hasAuthority('ADMIN')")
-    public Page<User> getAllUsers(
+    public Page<UserRow> getAllUsers(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "firstName") String sort,
@@ -93,4 +96,18 @@ public class UserController {
     ) {
          return userService.searchUsers(role, search, page, size, sort, direction);
     }
+
+    // Keyset mode of /search: chosen when "after" is present (empty for the first page)
+    @GetMapping(value = "/search", params = "after")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public CursorPageDTO<UserRow> scrollUsers(
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "firstName") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) String search
+    ) {
+        return userService.scrollUsers(role, search, after, size, sort, direction);
+    }
 }
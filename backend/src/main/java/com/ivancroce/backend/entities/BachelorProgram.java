@@ -13,7 +13,8 @@ import lombok.*;
 @NoArgsConstructor
 public class BachelorProgram {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bachelor_programs_seq")
+    @SequenceGenerator(name = "bachelor_programs_seq", sequenceName = "bachelor_programs_seq", allocationSize = 50)
     @Setter(AccessLevel.NONE)
     private Long id;
     @Column(nullable = false)
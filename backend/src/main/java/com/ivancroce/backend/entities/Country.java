@@ -14,8 +14,10 @@ import java.util.List;
 @ToString(exclude = "bachelorPrograms")
 @NoArgsConstructor
 public class Country {
+    // Sequence ids (pooled, 50 per round trip) let Hibernate batch the import inserts; IDENTITY can't be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "countries_seq")
+    @SequenceGenerator(name = "countries_seq", sequenceName = "countries_seq", allocationSize = 50)
     @Setter(AccessLevel.NONE)
     private Long id;
     @Column(nullable = false, unique = true)
@@ -28,6 +30,22 @@ public class Country {
     private String creditRatio;
     @Column(name = "country_code", length = 2)
     private String countryCode;
+    // Parsed from gradingSystem (numeric scales only) and creditRatio, see CountryService.updateParsedColumns
+    @Column(name = "grade_min")
+    private Double gradeMin;
+    @Column(name = "grade_max")
+    private Double gradeMax;
+    @Column(name = "grade_ascending")
+    private Boolean gradeAscending;
+    @Column(name = "credit_hours_low")
+    private Integer creditHoursLow;
+    @Column(name = "credit_hours_high")
+    private Integer creditHoursHigh;
+    // Chosen by BachelorProgramService.pickRepresentativeProgram and rewritten in the transaction of every write
+    // that can change it (programs of the country, its schooling years, the import); null while it has no programs
+    @Column(name = "representative_program_id")
+    @JsonIgnore
+    private Long representativeProgramId;
     @OneToMany(mappedBy = "country", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonIgnore
     private List<BachelorProgram> bachelorPrograms = new ArrayList<>();
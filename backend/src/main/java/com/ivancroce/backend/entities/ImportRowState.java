@@ -0,0 +1,23 @@
+package com.ivancroce.backend.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Hash of the cells of the sheet row a country was last imported from, keyed by the lower-case country name
+@Entity
+@Table(name = "import_row_state")
+@Getter
+@Setter
+@NoArgsConstructor
+public class ImportRowState {
+    @Id
+    @Column(name = "row_key")
+    private String rowKey;
+    @Column(nullable = false, name = "row_hash", length = 64)
+    private String rowHash;
+
+    public ImportRowState(String rowKey, String rowHash) {
+        this.rowKey = rowKey;
+        this.rowHash = rowHash;
+    }
+}
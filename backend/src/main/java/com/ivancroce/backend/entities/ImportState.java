@@ -0,0 +1,27 @@
+package com.ivancroce.backend.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Content hash of the last workbook imported from a source: an unchanged file isn't parsed again
+@Entity
+@Table(name = "import_state")
+@Getter
+@Setter
+@NoArgsConstructor
+public class ImportState {
+    @Id
+    private String source;
+    @Column(nullable = false, name = "content_hash", length = 64)
+    private String contentHash;
+    @Column(nullable = false, name = "imported_at")
+    private LocalDateTime importedAt;
+
+    public ImportState(String source, String contentHash, LocalDateTime importedAt) {
+        this.source = source;
+        this.contentHash = contentHash;
+        this.importedAt = importedAt;
+    }
+}
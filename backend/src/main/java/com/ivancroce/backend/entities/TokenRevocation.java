@@ -0,0 +1,24 @@
+package com.ivancroce.backend.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Per-user token cutoff: tokens issued before tokensValidAfter (epoch seconds) are rejected.
+// Not a users column, so the cutoff outlives a deleted user.
+@Entity
+@Table(name = "token_revocations")
+@Getter
+@Setter
+@NoArgsConstructor
+public class TokenRevocation {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    @Column(nullable = false, name = "tokens_valid_after")
+    private Long tokensValidAfter;
+
+    public TokenRevocation(Long userId, Long tokensValidAfter) {
+        this.userId = userId;
+        this.tokensValidAfter = tokensValidAfter;
+    }
+}
@@ -0,0 +1,5 @@
+package com.ivancroce.backend.enums;
+
+public enum AffinityCategory {
+    DURATION, CREDITS, CREDIT_RATIO, EQF, GRADING
+}
@@ -0,0 +1,26 @@
+package com.ivancroce.backend.enums;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+public enum AffinityLevel {
+    EQUIVALENT("EQUIVALENT"),
+    MODERATE("MODERATE"),
+    LOW("LOW"),
+    CAN_ALWAYS_BE_CONVERTED("CAN ALWAYS BE CONVERTED");
+
+    private final String label;
+
+    AffinityLevel(String label) {
+        this.label = label;
+    }
+
+    @JsonValue
+    public String getLabel() {
+        return label;
+    }
+
+    // Levels that are always convertible don't count towards the overall score
+    public boolean isComparable() {
+        return this != CAN_ALWAYS_BE_CONVERTED;
+    }
+}
@@ -0,0 +1,5 @@
+package com.ivancroce.backend.enums;
+
+public enum ImportJobStatus {
+QUEUED, RUNNING, COMPLETED, FAILED
+}
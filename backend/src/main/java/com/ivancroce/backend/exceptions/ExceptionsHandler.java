@@ -2,11 +2,14 @@ package com.ivancroce.backend.exceptions;
 
 import com.ivancroce.backend.payloads.ErrorDTO;
 import com.ivancroce.backend.payloads.ErrorsWithListDTO;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.authorization.AuthorizationDeniedException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 import java.time.LocalDateTime;
 
@@ -38,6 +41,19 @@ public class ExceptionsHandler {
         return new ErrorDTO(exception.getMessage(), LocalDateTime.now());
     }
 
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorDTO> handleTooManyRequests(TooManyRequestsException exception) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS) // 429
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()))
+                .body(new ErrorDTO(exception.getMessage(), LocalDateTime.now()));
+    }
+
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    @ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE) // 413
+    public ErrorDTO handlePayloadTooLarge(MaxUploadSizeExceededException exception) {
+        return new ErrorDTO("The uploaded file is too large", LocalDateTime.now());
+    }
+
     @ExceptionHandler(AuthorizationDeniedException.class)
     @ResponseStatus(HttpStatus.FORBIDDEN) // 403
     public ErrorDTO handleForbidden(AuthorizationDeniedException exception) {
@@ -0,0 +1,12 @@
+package com.ivancroce.backend.payloads;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record AffinityBatchLineDTO(
+        Long countryA,
+        Long countryB,
+        AffinityRespDTO affinity,
+        String error
+) {
+}
@@ -0,0 +1,15 @@
+package com.ivancroce.backend.payloads;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record AffinityBatchRequest(
+        @Valid
+        @Size(max = 10000, message = "A batch can contain at most 10000 pairs")
+        List<AffinityPairDTO> pairs,
+        @Size(max = 500, message = "A batch can contain at most 500 country ids")
+        List<Long> countryIds
+) {
+}
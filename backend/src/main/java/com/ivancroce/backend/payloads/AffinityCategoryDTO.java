@@ -0,0 +1,10 @@
+package com.ivancroce.backend.payloads;
+
+import com.ivancroce.backend.enums.AffinityCategory;
+import com.ivancroce.backend.enums.AffinityLevel;
+
+public record AffinityCategoryDTO(
+        AffinityCategory category,
+        AffinityLevel level
+) {
+}
@@ -0,0 +1,28 @@
+package com.ivancroce.backend.payloads;
+
+import com.ivancroce.backend.entities.BachelorProgram;
+import com.ivancroce.backend.entities.Country;
+
+public record AffinityCountryDTO(
+        Long id,
+        String name,
+        String countryCode,
+        Integer yearsCompulsorySchooling,
+        String gradingSystem,
+        String creditRatio,
+        boolean hasSpecialPrograms,
+        AffinityProgramDTO program
+) {
+    public static AffinityCountryDTO from(Country country, BachelorProgram program, boolean hasSpecialPrograms) {
+        return new AffinityCountryDTO(
+                country.getId(),
+                country.getName(),
+                country.getCountryCode(),
+                country.getYearsCompulsorySchooling(),
+                country.getGradingSystem(),
+                country.getCreditRatio(),
+                hasSpecialPrograms,
+                AffinityProgramDTO.from(program)
+        );
+    }
+}
@@ -0,0 +1,11 @@
+package com.ivancroce.backend.payloads;
+
+import jakarta.validation.constraints.NotNull;
+
+public record AffinityPairDTO(
+        @NotNull(message = "countryA is required")
+        Long countryA,
+        @NotNull(message = "countryB is required")
+        Long countryB
+) {
+}
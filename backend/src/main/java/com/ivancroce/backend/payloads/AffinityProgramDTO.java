@@ -0,0 +1,25 @@
+package com.ivancroce.backend.payloads;
+
+import com.ivancroce.backend.entities.BachelorProgram;
+
+public record AffinityProgramDTO(
+        Long id,
+        Integer duration,
+        Boolean isSpecialProgram,
+        Integer creditsPerYear,
+        Integer totalCredits,
+        Integer eqfLevel,
+        String officialDenomination
+) {
+    public static AffinityProgramDTO from(BachelorProgram program) {
+        return new AffinityProgramDTO(
+                program.getId(),
+                program.getDuration(),
+                program.getIsSpecialProgram(),
+                program.getCreditsPerYear(),
+                program.getTotalCredits(),
+                program.getEqfLevel(),
+                program.getOfficialDenomination()
+        );
+    }
+}
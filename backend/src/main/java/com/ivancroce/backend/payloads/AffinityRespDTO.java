@@ -0,0 +1,14 @@
+package com.ivancroce.backend.payloads;
+
+import com.ivancroce.backend.enums.AffinityLevel;
+
+import java.util.List;
+
+public record AffinityRespDTO(
+        AffinityCountryDTO countryA,
+        AffinityCountryDTO countryB,
+        List<AffinityCategoryDTO> categories,
+        int percentage,
+        AffinityLevel overall
+) {
+}
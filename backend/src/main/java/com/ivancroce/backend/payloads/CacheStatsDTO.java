@@ -0,0 +1,14 @@
+package com.ivancroce.backend.payloads;
+
+import com.ivancroce.backend.tools.BoundedCache;
+
+public record CacheStatsDTO(
+        String name,
+        int size,
+        long hits,
+        long misses
+) {
+    public static CacheStatsDTO from(String name, BoundedCache<?, ?> cache) {
+        return new CacheStatsDTO(name, cache.size(), cache.hitCount(), cache.missCount());
+    }
+}
@@ -0,0 +1,23 @@
+package com.ivancroce.backend.payloads;
+
+import com.ivancroce.backend.enums.AffinityLevel;
+
+public record CompatibleCountryDTO(
+        Long id,
+        String name,
+        String countryCode,
+        AffinityProgramDTO program,
+        int percentage,
+        AffinityLevel overall
+) {
+    public static CompatibleCountryDTO from(AffinityCountryDTO country, int percentage, AffinityLevel overall) {
+        return new CompatibleCountryDTO(
+                country.id(),
+                country.name(),
+                country.countryCode(),
+                country.program(),
+                percentage,
+                overall
+        );
+    }
+}
@@ -0,0 +1,11 @@
+package com.ivancroce.backend.payloads;
+
+import com.ivancroce.backend.entities.BachelorProgram;
+import com.ivancroce.backend.entities.Country;
+
+// What the report page reads per country: GET /{id}, /representative-program and /has-special-program in one
+public record CountryDetailsDTO(
+        Country country,
+        BachelorProgram representativeProgram,
+        boolean hasSpecialProgram
+) {}
@@ -0,0 +1,11 @@
+package com.ivancroce.backend.payloads;
+
+// Row of the admin countries table: selected column by column (no entity is loaded)
+public record CountryRow(
+        Long id,
+        String name,
+        Integer yearsCompulsorySchooling,
+        String gradingSystem,
+        String creditRatio,
+        String countryCode
+) {}
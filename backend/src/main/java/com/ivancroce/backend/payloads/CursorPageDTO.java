@@ -0,0 +1,10 @@
+package com.ivancroce.backend.payloads;
+
+import java.util.List;
+
+// One page of a keyset (cursor) listing: pass nextCursor as "after" to get the following page; null on the last page
+public record CursorPageDTO<T>(
+        List<T> content,
+        int size,
+        String nextCursor
+) {}
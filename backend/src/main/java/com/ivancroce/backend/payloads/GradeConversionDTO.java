@@ -0,0 +1,9 @@
+package com.ivancroce.backend.payloads;
+
+public record GradeConversionDTO(
+        String from,
+        String to,
+        String grade,
+        String convertedGrade
+) {
+}
@@ -0,0 +1,20 @@
+package com.ivancroce.backend.payloads;
+
+import com.ivancroce.backend.enums.ImportJobStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public record ImportJobDTO(
+        UUID jobId,
+        String fileName,
+        ImportJobStatus status,
+        int rowsParsed,
+        int rowsWritten,
+        int errorCount,
+        List<String> errors,
+        ImportReportDTO report,
+        LocalDateTime submittedAt,
+        LocalDateTime finishedAt
+) {}
@@ -0,0 +1,19 @@
+package com.ivancroce.backend.payloads;
+
+public record ImportReportDTO(
+        boolean workbookUnchanged,
+        int rowsRead,
+        // Non-blank rows after the first country row that aren't country rows (footnotes, malformed rows)
+        int rowsSkipped,
+        int rowsUnchanged,
+        int countriesCreated,
+        int countriesUpdated,
+        int programsWritten,
+        int statements,
+        long elapsedMillis
+) {
+    // Same content hash as the last import: the workbook wasn't parsed
+    public static ImportReportDTO unchanged(long elapsedMillis) {
+        return new ImportReportDTO(true, 0, 0, 0, 0, 0, 0, 0, elapsedMillis);
+    }
+}
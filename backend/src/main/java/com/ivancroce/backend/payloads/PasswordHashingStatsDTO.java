@@ -0,0 +1,12 @@
+package com.ivancroce.backend.payloads;
+
+public record PasswordHashingStatsDTO(
+        int poolSize,
+        int activeThreads,
+        int queueDepth,
+        int queueCapacity,
+        long completed,
+        long rejected,
+        double averageHashMillis,
+        double maxHashMillis
+) {}
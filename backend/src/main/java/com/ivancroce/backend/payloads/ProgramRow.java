@@ -0,0 +1,13 @@
+package com.ivancroce.backend.payloads;
+
+// Row of the admin bachelor programs table: selected column by column (no entity is loaded)
+public record ProgramRow(
+        Long id,
+        Long countryId,
+        Integer duration,
+        Boolean isSpecialProgram,
+        Integer creditsPerYear,
+        Integer totalCredits,
+        Integer eqfLevel,
+        String officialDenomination
+) {}
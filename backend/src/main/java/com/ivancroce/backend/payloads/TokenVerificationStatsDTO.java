@@ -0,0 +1,8 @@
+package com.ivancroce.backend.payloads;
+
+public record TokenVerificationStatsDTO(
+        long verifications,
+        long cacheHits,
+        long failures,
+        int cachedTokens
+) {}
@@ -0,0 +1,11 @@
+package com.ivancroce.backend.payloads;
+
+import java.util.List;
+
+public record TranscriptConversionDTO(
+        String from,
+        String to,
+        List<String> grades,
+        List<String> convertedGrades
+) {
+}
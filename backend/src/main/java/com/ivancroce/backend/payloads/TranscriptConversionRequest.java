@@ -0,0 +1,18 @@
+package com.ivancroce.backend.payloads;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record TranscriptConversionRequest(
+        @NotBlank(message = "Source country code is required")
+        String from,
+        @NotBlank(message = "Target country code is required")
+        String to,
+        @NotEmpty(message = "At least one grade is required")
+        @Size(max = 500, message = "A transcript can contain at most 500 grades")
+        List<String> grades
+) {
+}
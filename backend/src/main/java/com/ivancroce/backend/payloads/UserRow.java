@@ -0,0 +1,14 @@
+package com.ivancroce.backend.payloads;
+
+import com.ivancroce.backend.enums.Role;
+
+// Row of the admin users table: selected column by column (no entity is loaded, so never the password)
+public record UserRow(
+        Long id,
+        String username,
+        String email,
+        String firstName,
+        String lastName,
+        String avatarUrl,
+        Role role
+) {}
@@ -1,12 +1,20 @@
 package com.ivancroce.backend.repositories;
 
 import com.ivancroce.backend.entities.BachelorProgram;
+import com.ivancroce.backend.payloads.ProgramRow;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,13 +22,23 @@ import java.util.Optional;
 public interface BachelorProgramRepository extends JpaRepository<BachelorProgram, Long>, JpaSpecificationExecutor<BachelorProgram> {
     List<BachelorProgram> findByCountryId(Long countryId);
 
-    @Query("SELECT bp FROM BachelorProgram bp WHERE bp.country.id = :countryId AND bp.duration = (16 - bp.country.yearsCompulsorySchooling) AND bp.isSpecialProgram = false")
-    Optional<BachelorProgram> findStandardProgramForCountry(@Param("countryId") Long countryId);
+    List<BachelorProgram> findByCountryIdIn(Collection<Long> countryIds);
 
-    @Query("SELECT bp FROM BachelorProgram bp WHERE bp.country.id = :countryId ORDER BY bp.duration DESC LIMIT 1")
-    Optional<BachelorProgram> findLongestProgramForCountry(@Param("countryId") Long countryId);
+    // Two primary-key lookups in one statement: the country's stored pointer, then the program
+    @Query("SELECT bp FROM Country c JOIN BachelorProgram bp ON bp.id = c.representativeProgramId WHERE c.id = :countryId")
+    Optional<BachelorProgram> findRepresentativeProgram(@Param("countryId") Long countryId);
 
     boolean existsByCountryIdAndDuration(Long countryId, Integer duration);
 
     boolean existsByCountryIdAndIsSpecialProgramTrue(Long countryId);
+
+    // Only the ProgramRow columns are selected (constructor projection), so nothing is hydrated or dirty-tracked
+    default Page<ProgramRow> findRows(Specification<BachelorProgram> specification, Pageable pageable) {
+        return findBy(specification, query -> query.as(ProgramRow.class).page(pageable));
+    }
+
+    // Keyset page: seek past the position, no OFFSET and no count query (the id is appended to the sort as tie-breaker)
+    default Window<ProgramRow> scrollRows(Specification<BachelorProgram> specification, Sort sort, int limit, ScrollPosition position) {
+        return findBy(specification, query -> query.as(ProgramRow.class).sortBy(sort).limit(limit).scroll(position));
+    }
 }
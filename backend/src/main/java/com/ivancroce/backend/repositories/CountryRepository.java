@@ -1,9 +1,54 @@
 package com.ivancroce.backend.repositories;
 
 import com.ivancroce.backend.entities.Country;
+import com.ivancroce.backend.payloads.CountryDetailsDTO;
+import com.ivancroce.backend.payloads.CountryRespDTO;
+import com.ivancroce.backend.payloads.CountryRow;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface CountryRepository extends JpaRepository<Country, Long>, JpaSpecificationExecutor<Country> {
     boolean existsByNameIgnoreCase(String name);
+
+    Optional<Country> findByNameIgnoreCase(String name);
+
+    // The whole batch in one statement: the countries, their representative program (joined on the stored pointer)
+    // and the special-program flag
+    @Query("SELECT new com.ivancroce.backend.payloads.CountryDetailsDTO(c, bp, " +
+            "CASE WHEN EXISTS (SELECT 1 FROM BachelorProgram s WHERE s.country = c AND s.isSpecialProgram = true) THEN true ELSE false END) " +
+            "FROM Country c LEFT JOIN BachelorProgram bp ON bp.id = c.representativeProgramId WHERE c.id IN :ids")
+    List<CountryDetailsDTO> findDetailsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Countries with programs but no representative pointer yet (rows created before the column existed)
+    @Query("SELECT c FROM Country c WHERE c.representativeProgramId IS NULL AND EXISTS (SELECT 1 FROM BachelorProgram bp WHERE bp.country = c)")
+    List<Country> findMissingRepresentativeProgram();
+
+    @Query("SELECT LOWER(c.name) FROM Country c")
+    List<String> findAllLowercaseNames();
+
+    // Selects only the three dropdown columns instead of hydrating full entities
+    @Query("SELECT new com.ivancroce.backend.payloads.CountryRespDTO(c.id, c.name, c.countryCode) FROM Country c ORDER BY c.name")
+    List<CountryRespDTO> findAllSimple();
+
+    // Only the CountryRow columns are selected (constructor projection), so nothing is hydrated or dirty-tracked
+    default Page<CountryRow> findRows(Specification<Country> specification, Pageable pageable) {
+        return findBy(specification, query -> query.as(CountryRow.class).page(pageable));
+    }
+
+    // Keyset page: seek past the position, no OFFSET and no count query (the id is appended to the sort as tie-breaker)
+    default Window<CountryRow> scrollRows(Specification<Country> specification, Sort sort, int limit, ScrollPosition position) {
+        return findBy(specification, query -> query.as(CountryRow.class).sortBy(sort).limit(limit).scroll(position));
+    }
  }
@@ -0,0 +1,15 @@
+package com.ivancroce.backend.repositories;
+
+import com.ivancroce.backend.entities.ImportRowState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ImportRowStateRepository extends JpaRepository<ImportRowState, String> {
+    @Modifying
+    @Query("UPDATE ImportRowState r SET r.rowHash = :rowHash WHERE r.rowKey = :rowKey")
+    int updateRowHash(@Param("rowKey") String rowKey, @Param("rowHash") String rowHash);
+}
@@ -0,0 +1,9 @@
+package com.ivancroce.backend.repositories;
+
+import com.ivancroce.backend.entities.ImportState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ImportStateRepository extends JpaRepository<ImportState, String> {
+}
@@ -0,0 +1,23 @@
+package com.ivancroce.backend.repositories;
+
+import com.ivancroce.backend.entities.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+
+    // Cutoffs that can still match an unexpired token
+    List<TokenRevocation> findByTokensValidAfterGreaterThanEqual(Long cutoffSeconds);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM TokenRevocation r WHERE r.tokensValidAfter < :cutoffSeconds")
+    int deleteOlderThan(@Param("cutoffSeconds") Long cutoffSeconds);
+}
@@ -1,9 +1,20 @@
 package com.ivancroce.backend.repositories;
 
 import com.ivancroce.backend.entities.User;
+import com.ivancroce.backend.payloads.UserRow;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -15,4 +26,21 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
     boolean existsByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByUsernameAndIdNot(String username, Long id);
+
+    // Compare-and-set on the hash: 0 rows when the password changed since expectedPassword was read
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newPassword WHERE u.id = :id AND u.password = :expectedPassword")
+    int updatePasswordIfUnchanged(@Param("id") Long id, @Param("expectedPassword") String expectedPassword,
+                                  @Param("newPassword") String newPassword);
+
+    // Only the UserRow columns are selected (constructor projection), so nothing is hydrated or dirty-tracked
+    default Page<UserRow> findRows(Specification<User> specification, Pageable pageable) {
+        return findBy(specification, query -> query.as(UserRow.class).page(pageable));
+    }
+
+    // Keyset page: seek past the position, no OFFSET and no count query (the id is appended to the sort as tie-breaker)
+    default Window<UserRow> scrollRows(Specification<User> specification, Sort sort, int limit, ScrollPosition position) {
+        return findBy(specification, query -> query.as(UserRow.class).sortBy(sort).limit(limit).scroll(position));
+    }
 }
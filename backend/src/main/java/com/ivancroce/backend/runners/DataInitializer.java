@@ -3,9 +3,12 @@ package com.ivancroce.backend.runners;
 import com.ivancroce.backend.entities.User;
 
 import com.ivancroce.backend.enums.Role;
+import com.ivancroce.backend.payloads.ImportReportDTO;
 import com.ivancroce.backend.payloads.UserRegistrationDTO;
 import com.ivancroce.backend.payloads.UserRespDTO;
 
+import com.ivancroce.backend.services.BachelorProgramService;
+import com.ivancroce.backend.services.CountryService;
 import com.ivancroce.backend.services.ExcelImportService;
 import com.ivancroce.backend.services.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,6 +23,12 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private ExcelImportService excelImportService;
 
+    @Autowired
+    private CountryService countryService;
+
+    @Autowired
+    private BachelorProgramService bachelorProgramService;
+
     @Autowired
     private UserService userService;
 
@@ -40,9 +49,21 @@ public class DataInitializer implements CommandLineRunner {
     @Override
     public void run(String... args) throws Exception {
         System.out.println("=== Starting data import... ===");
-        excelImportService.importCountriesFromExcel();
+        ImportReportDTO report = excelImportService.importCountriesFromExcel();
+        if (report.workbookUnchanged()) {
+            System.out.println("Excel file unchanged since the last import, nothing to parse (" + report.elapsedMillis() + " ms)");
+        } else {
+            System.out.println("Rows read: " + report.rowsRead() + ", skipped: " + report.rowsSkipped() + ", unchanged: " + report.rowsUnchanged()
+                    + ", countries created: " + report.countriesCreated() + ", updated: " + report.countriesUpdated()
+                    + ", programs written: " + report.programsWritten()
+                    + ", SQL statements: " + report.statements() + ", " + report.elapsedMillis() + " ms");
+        }
+        countryService.backfillParsedColumns();
+        bachelorProgramService.backfillRepresentativePrograms();
         System.out.println("=== Data import completed! ===");
 
+        countryService.refreshAfterImport();
+
         System.out.println("=== Checking admin user... ===");
         User existingAdmin = userService.tryFindByEmail(adminEmail);
         if (existingAdmin == null) {
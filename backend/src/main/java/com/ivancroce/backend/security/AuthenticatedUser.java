@@ -0,0 +1,25 @@
+package com.ivancroce.backend.security;
+
+import com.ivancroce.backend.enums.Role;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+
+// Principal built from the verified token claims, so authenticated requests don't load the user
+public record AuthenticatedUser(
+        Long id,
+        String email,
+        Role role
+) implements Principal {
+
+    public List<GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority(role.name()));
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -1,9 +1,9 @@
 package com.ivancroce.backend.security;
 
-import com.ivancroce.backend.entities.User;
+import com.ivancroce.backend.enums.Role;
 import com.ivancroce.backend.exceptions.UnauthorizedException;
-import com.ivancroce.backend.services.UserService;
 import com.ivancroce.backend.tools.JWTTools;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,7 +13,6 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
-import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
@@ -25,7 +24,10 @@ public class JWTCheckerFilter extends OncePerRequestFilter {
     private JWTTools jwtTools;
 
     @Autowired
-    private UserService userService;
+    private TokenRevocationList tokenRevocationList;
+
+    @Autowired
+    private RouteClassifier routeClassifier;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
@@ -36,11 +38,16 @@ public class JWTCheckerFilter extends OncePerRequestFilter {
             throw new UnauthorizedException("Insert a valid token");
 
         String extractedToken = authHeader.replace("Bearer ", "");
-        jwtTools.verifyToken(extractedToken);
+        Claims claims = jwtTools.verifyToken(extractedToken);
 
         //AUTHORIZATION
-        String userId = jwtTools.extractId(extractedToken);
-        User authorizedUser = this.userService.findById(Long.valueOf(userId));
+        // Built from the verified claims; users deleted or changed since the token was issued are on the revocation list
+        Long userId = Long.valueOf(claims.getSubject());
+        if (tokenRevocationList.isRevoked(userId, claims.getIssuedAt().getTime() / 1000))
+            throw new UnauthorizedException("Unauthorized - try again");
+
+        AuthenticatedUser authorizedUser = new AuthenticatedUser(userId, claims.get("email", String.class),
+                Role.valueOf(claims.get("role", String.class)));
 
         Authentication authentication = new UsernamePasswordAuthenticationToken(authorizedUser, null, authorizedUser.getAuthorities());
         SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -50,37 +57,6 @@ public class JWTCheckerFilter extends OncePerRequestFilter {
 
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
-        AntPathMatcher matcher = new AntPathMatcher();
-        String path = request.getServletPath();
-        String method = request.getMethod();
-
-        // Public auth endpoints
-        if (matcher.match("/api/auth/**", path)) {
-            return true;
-        }
-
-        // Public endpoints for the Affinity Report
-        if ("GET".equals(method)) {
-            if (matcher.match("/api/countries/simple", path) ||
-                    matcher.match("/api/countries/*/representative-program", path) ||
-                    matcher.match("/api/countries/*/has-special-program", path) ||
-                    matcher.match("/api/countries/*", path) && !path.contains("/search")) {
-                return true;
-            }
-        }
-
-        if (matcher.match("/api/feedback", path) && "POST".equals(method)) {
-            return true;
-        }
-
-        // Swagger UI public
-        if (matcher.match("/swagger-ui/**", path) ||
-                matcher.match("/api-docs/**", path) ||
-                matcher.match("/swagger-ui.html", path) ||
-                matcher.match("/v3/api-docs/**", path)) {
-            return true;
-        }
-
-        return false;
+        return routeClassifier.isPublic(request);
     }
-}
\ No newline at end of file
+}
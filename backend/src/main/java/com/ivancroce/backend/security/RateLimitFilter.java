@@ -0,0 +1,165 @@
+package com.ivancroce.backend.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ivancroce.backend.config.RateLimitProperties;
+import com.ivancroce.backend.payloads.ErrorDTO;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-client, per-route token buckets, checked before JWT authentication.
+// Each bucket is a single AtomicLong holding its "theoretical arrival time" (GCRA, equivalent to a token bucket),
+// updated with CAS, so there are no locks; the map is a ConcurrentHashMap (internally striped).
+// Buckets that have been full for rate-limit.idle-eviction are swept in the background, and the map holds about
+// rate-limit.max-clients of them at most: a new client past that makes room by evicting, never by sharing a bucket.
+// The client is getRemoteAddr(), which Tomcat's RemoteIpValve (server.forward-headers-strategy=native) sets to the
+// right-most X-Forwarded-For hop that isn't one of our proxies; the left part of the header is client-supplied.
+// IPv6 clients are keyed by their /64, the block one subscriber gets, so rotating addresses inside it doesn't help.
+@Component
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final RouteTrie<Limit> limits = new RouteTrie<>();
+    private final ConcurrentHashMap<ClientKey, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final long idleEvictionNanos;
+    private final int maxClients;
+    private final ScheduledExecutorService sweeper;
+    private final ObjectMapper objectMapper;
+
+    // intervalNanos: time to earn one token; burstNanos: capacity × interval
+    private record Limit(int route, long intervalNanos, long burstNanos) {}
+
+    private record ClientKey(int route, String client) {}
+
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper) {
+        this.enabled = properties.enabled();
+        this.objectMapper = objectMapper;
+        for (int i = 0; i < properties.routes().size(); i++) {
+            RateLimitProperties.Route route = properties.routes().get(i);
+            long interval = route.refillPeriod().toNanos() / route.capacity();
+            limits.add(route.method(), route.path(), new Limit(i, interval, interval * route.capacity()));
+        }
+        this.idleEvictionNanos = properties.idleEviction().toNanos();
+        this.maxClients = properties.maxClients();
+        long sweepSeconds = Math.max(1, properties.idleEviction().toSeconds() / 2);
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("rate-limit-sweeper").daemon(true).factory());
+        this.sweeper.scheduleWithFixedDelay(this::evictIdle, sweepSeconds, sweepSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stopSweeper() {
+        sweeper.shutdownNow();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        long waitNanos = tryAcquire(request.getMethod(), request.getServletPath(), request.getRemoteAddr(), System.nanoTime());
+        if (waitNanos > 0) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds(waitNanos)));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(),
+                    new ErrorDTO("Too many requests, please try again later", LocalDateTime.now()));
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || limits.find(request.getMethod(), request.getServletPath()) == null;
+    }
+
+    // 0 when the request may proceed (or the route has no limit), otherwise how long until the next token is available
+    long tryAcquire(String method, String path, String remoteAddr, long now) {
+        Limit limit = limits.find(method, path);
+        if (limit == null) {
+            return 0;
+        }
+        ClientKey key = new ClientKey(limit.route(), clientId(remoteAddr));
+        // Concurrent first requests can pass the size check together, so the map can exceed maxClients by at most
+        // the number of request threads
+        if (buckets.mappingCount() >= maxClients && !buckets.containsKey(key)) {
+            makeRoom(now);
+        }
+        AtomicLong arrival = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        while (true) {
+            long current = arrival.get();
+            long next = Math.max(current, now) + limit.intervalNanos();
+            long wait = next - now - limit.burstNanos();
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // Whole seconds, rounded up, and never 0 (a client retrying immediately would just be refused again)
+    static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+    }
+
+    // IPv4 as is; IPv6 reduced to its /64 prefix (parsing a literal does no lookup)
+    static String clientId(String remoteAddr) {
+        if (remoteAddr == null || remoteAddr.indexOf(':') < 0) {
+            return remoteAddr;
+        }
+        try {
+            InetAddress address = InetAddress.getByName(remoteAddr);
+            if (!(address instanceof Inet6Address)) {
+                return address.getHostAddress(); // IPv4-mapped
+            }
+            return HexFormat.of().formatHex(address.getAddress(), 0, 8) + "/64";
+        } catch (UnknownHostException e) {
+            return remoteAddr;
+        }
+    }
+
+    int trackedClients() {
+        return buckets.size();
+    }
+
+    // A bucket whose arrival time has passed is full again, the same as a new one, so dropping it loses nothing.
+    // If every bucket still owes time, the stalest one (earliest arrival, the closest to full) goes
+    private void makeRoom(long now) {
+        buckets.values().removeIf(arrival -> arrival.get() - now <= 0);
+        while (buckets.mappingCount() >= maxClients) {
+            Map.Entry<ClientKey, AtomicLong> stalest = null;
+            for (Map.Entry<ClientKey, AtomicLong> entry : buckets.entrySet()) {
+                if (stalest == null || entry.getValue().get() - stalest.getValue().get() < 0) stalest = entry;
+            }
+            if (stalest == null) return;
+            buckets.remove(stalest.getKey(), stalest.getValue());
+        }
+    }
+
+    // A bucket whose arrival time is in the past is full again; drop it once it has been idle long enough
+    private void evictIdle() {
+        long cutoff = System.nanoTime() - idleEvictionNanos;
+        buckets.values().removeIf(arrival -> arrival.get() - cutoff < 0);
+    }
+}
@@ -0,0 +1,71 @@
+package com.ivancroce.backend.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Component;
+
+// Single source of truth for which routes skip JWT authentication, compiled once into a RouteTrie
+@Component
+public class RouteClassifier {
+
+    public enum RouteAccess { PUBLIC, AUTHENTICATED }
+
+    private final RouteTrie<RouteAccess> routes = new RouteTrie<>();
+
+    // Routes that are public only when a query parameter is present, value = the parameter name
+    private final RouteTrie<String> publicWithParameter = new RouteTrie<>();
+
+    public RouteClassifier() {
+        // Auth, error page and Swagger UI
+        permit(RouteTrie.ANY_METHOD, "/api/auth/**");
+        permit(RouteTrie.ANY_METHOD, "/error");
+        permit(RouteTrie.ANY_METHOD, "/swagger-ui/**");
+        permit(RouteTrie.ANY_METHOD, "/swagger-ui.html");
+        permit(RouteTrie.ANY_METHOD, "/api-docs/**");
+        permit(RouteTrie.ANY_METHOD, "/v3/api-docs/**");
+
+        // Public endpoints for the Affinity Report
+        permit("GET", "/api/countries/*");
+        // The batch lookup shares its path with the admin listing (GET /api/countries?page=...)
+        permitWithParameter("GET", "/api/countries", "ids");
+        restrict("GET", "/api/countries/search");
+        permit("GET", "/api/countries/*/representative-program");
+        permit("GET", "/api/countries/*/has-special-program");
+        permit("GET", "/api/countries/*/most-compatible");
+        permit("GET", "/api/affinity/*/*");
+        permit("GET", "/api/affinity/*/*/report.pdf");
+        permit("GET", "/api/grades/convert");
+        permit("POST", "/api/affinity/batch");
+        permit("POST", "/api/grades/convert");
+        permit("POST", "/api/feedback");
+    }
+
+    public boolean isPublic(String method, String path) {
+        return classify(method, path) == RouteAccess.PUBLIC;
+    }
+
+    public boolean isPublic(HttpServletRequest request) {
+        String method = request.getMethod();
+        String path = request.getServletPath();
+        if (isPublic(method, path)) return true;
+        String parameter = publicWithParameter.find(method, path);
+        return parameter != null && request.getParameter(parameter) != null;
+    }
+
+    public RouteAccess classify(String method, String path) {
+        RouteAccess access = routes.find(method, path);
+        return access != null ? access : RouteAccess.AUTHENTICATED;
+    }
+
+    private void permit(String method, String pattern) {
+        routes.add(method, pattern, RouteAccess.PUBLIC);
+    }
+
+    private void permitWithParameter(String method, String pattern, String parameter) {
+        publicWithParameter.add(method, pattern, parameter);
+    }
+
+    // Carves an exception out of a wider public pattern (the literal segment wins over '*')
+    private void restrict(String method, String pattern) {
+        routes.add(method, pattern, RouteAccess.AUTHENTICATED);
+    }
+}
@@ -0,0 +1,91 @@
+package com.ivancroce.backend.security;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Route table compiled into a per-method segment trie. Patterns are Ant-style: literal segments, '*' (one segment)
+// and '**' (any number of segments, including none). Lookups walk the path in place (no splitting, no substrings),
+// so they don't allocate. Built once at startup and read-only afterwards.
+public class RouteTrie<V> {
+
+    public static final String ANY_METHOD = "*";
+
+    private final Map<String, Node<V>> roots = new HashMap<>();
+
+    public void add(String method, String pattern, V value) {
+        Node<V> node = roots.computeIfAbsent(method, m -> new Node<>());
+        for (String segment : pattern.substring(1).split("/")) {
+            node = node.child(segment);
+        }
+        node.value = value;
+    }
+
+    // Method-specific routes first, then the ones registered for any method; null when nothing matches
+    public V find(String method, String path) {
+        int start = path.startsWith("/") ? 1 : 0;
+        V value = null;
+        Node<V> methodRoot = roots.get(method);
+        if (methodRoot != null) {
+            value = match(methodRoot, path, start);
+        }
+        Node<V> anyRoot = roots.get(ANY_METHOD);
+        if (value == null && anyRoot != null) {
+            value = match(anyRoot, path, start);
+        }
+        return value;
+    }
+
+    // Most specific first: literal segment, then '*', then '**'
+    private static <V> V match(Node<V> node, String path, int start) {
+        if (start >= path.length()) {
+            if (node.value != null) return node.value;
+            return node.anyDepth != null ? node.anyDepth.value : null;
+        }
+        int end = path.indexOf('/', start);
+        if (end < 0) end = path.length();
+        int next = end + 1;
+
+        for (int i = 0; i < node.labels.length; i++) {
+            String label = node.labels[i];
+            if (label.length() == end - start && path.regionMatches(start, label, 0, label.length())) {
+                V value = match(node.children[i], path, next);
+                if (value != null) return value;
+            }
+        }
+        if (node.anySegment != null && end > start) {
+            V value = match(node.anySegment, path, next);
+            if (value != null) return value;
+        }
+        return node.anyDepth != null ? node.anyDepth.value : null;
+    }
+
+    private static final class Node<V> {
+        // Literal children as parallel arrays: a handful per node, scanned without hashing the segment
+        private String[] labels = new String[0];
+        @SuppressWarnings("unchecked")
+        private Node<V>[] children = new Node[0];
+        private Node<V> anySegment;
+        private Node<V> anyDepth;
+        private V value;
+
+        private Node<V> child(String segment) {
+            if (segment.equals("**")) {
+                if (anyDepth == null) anyDepth = new Node<>();
+                return anyDepth;
+            }
+            if (segment.equals("*")) {
+                if (anySegment == null) anySegment = new Node<>();
+                return anySegment;
+            }
+            for (int i = 0; i < labels.length; i++) {
+                if (labels[i].equals(segment)) return children[i];
+            }
+            labels = Arrays.copyOf(labels, labels.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            labels[labels.length - 1] = segment;
+            children[children.length - 1] = new Node<>();
+            return children[children.length - 1];
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.ivancroce.backend.security;
+
+import com.ivancroce.backend.entities.TokenRevocation;
+import com.ivancroce.backend.repositories.TokenRevocationRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Denylist: a token is revoked when its user was deleted or changed after the token was issued.
+// One entry per user (the latest revocation), dropped once every token it could match has expired.
+// Entries are written to token_revocations and reloaded at startup; checks are served from memory.
+@Component
+public class TokenRevocationList {
+
+    private final Map<Long, Long> revokedAtSeconds = new ConcurrentHashMap<>();
+    private final long expirationSeconds;
+    private final TokenRevocationRepository tokenRevocationRepository;
+
+    public TokenRevocationList(@Value("${jwt.expiration}") long expirationMillis, TokenRevocationRepository tokenRevocationRepository) {
+        this.expirationSeconds = expirationMillis / 1000 + 1;
+        this.tokenRevocationRepository = tokenRevocationRepository;
+    }
+
+    @PostConstruct
+    public void load() {
+        long cutoff = System.currentTimeMillis() / 1000 - expirationSeconds;
+        for (TokenRevocation revocation : tokenRevocationRepository.findByTokensValidAfterGreaterThanEqual(cutoff)) {
+            revokedAtSeconds.put(revocation.getUserId(), revocation.getTokensValidAfter());
+        }
+    }
+
+    public void revoke(Long userId) {
+        long now = System.currentTimeMillis() / 1000;
+        tokenRevocationRepository.save(new TokenRevocation(userId, now));
+        revokedAtSeconds.put(userId, now);
+        // Anything revoked longer ago than the token TTL can no longer match a live token
+        revokedAtSeconds.values().removeIf(revokedAt -> revokedAt < now - expirationSeconds);
+        tokenRevocationRepository.deleteOlderThan(now - expirationSeconds);
+    }
+
+    // issued-at has second precision: a token issued in the revocation's second (e.g. the login right after a
+    // password change) is accepted, so only tokens from the seconds before it are rejected
+    public boolean isRevoked(Long userId, long issuedAtSeconds) {
+        Long revokedAt = revokedAtSeconds.get(userId);
+        return revokedAt != null && issuedAtSeconds < revokedAt;
+    }
+
+    public int size() {
+        return revokedAtSeconds.size();
+    }
+}
@@ -0,0 +1,254 @@
+package com.ivancroce.backend.services;
+
+import com.ivancroce.backend.entities.BachelorProgram;
+import com.ivancroce.backend.entities.Country;
+import com.ivancroce.backend.enums.AffinityCategory;
+import com.ivancroce.backend.enums.AffinityLevel;
+import com.ivancroce.backend.payloads.AffinityCountryDTO;
+import com.ivancroce.backend.payloads.AffinityRespDTO;
+import com.ivancroce.backend.repositories.BachelorProgramRepository;
+import com.ivancroce.backend.repositories.CountryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+
+// Dense N x N matrix of affinity scores and category levels for every country that has programs.
+// Readers get an immutable Matrix through a volatile field (no lock, no database), writers publish a new one
+// recomputing only the row and column of the country that changed.
+@Service
+@Slf4j
+public class AffinityMatrixService {
+
+    private static final int CATEGORY_COUNT = AffinityCategory.values().length;
+    private static final AffinityLevel[] LEVELS = AffinityLevel.values();
+
+    @Autowired
+    private CountryRepository countryRepository;
+
+    @Autowired
+    private BachelorProgramRepository bachelorProgramRepository;
+
+    private volatile Matrix matrix = Matrix.EMPTY;
+
+    public Matrix current() {
+        return matrix;
+    }
+
+    // Returns null when one of the countries is unknown or has no programs
+    public AffinityRespDTO getComparison(Long countryAId, Long countryBId) {
+        Matrix current = matrix;
+        int a = current.ordinalOf(countryAId);
+        int b = current.ordinalOf(countryBId);
+        if (a < 0 || b < 0) return null;
+
+        return AffinityService.toResponse(current.countryAt(a), current.countryAt(b), current.levels(a, b));
+    }
+
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        Map<Long, List<BachelorProgram>> programsByCountry = bachelorProgramRepository.findAll().stream()
+                .collect(Collectors.groupingBy(BachelorProgram::getCountryId));
+
+        List<AffinityCountryDTO> profiles = new ArrayList<>();
+        for (Country country : countryRepository.findAll()) {
+            toProfile(country, programsByCountry.getOrDefault(country.getId(), List.of())).ifPresent(profiles::add);
+        }
+
+        matrix = Matrix.build(profiles, null, null, matrix.version + 1);
+        log.info("Affinity matrix built for {} countries in {} ms", matrix.size(), System.currentTimeMillis() - start);
+    }
+
+    // Called after any write that may change a country's profile (country fields or any of its programs)
+    public synchronized void refreshCountry(Long countryId) {
+        Optional<AffinityCountryDTO> profile = countryRepository.findById(countryId)
+                .flatMap(country -> toProfile(country, bachelorProgramRepository.findByCountryId(countryId)));
+
+        Matrix current = matrix;
+        List<AffinityCountryDTO> profiles = new ArrayList<>(Arrays.asList(current.countries));
+        profiles.removeIf(existing -> existing.id().equals(countryId));
+        profile.ifPresent(profiles::add);
+
+        matrix = Matrix.build(profiles, current, countryId, current.version + 1);
+    }
+
+    private Optional<AffinityCountryDTO> toProfile(Country country, List<BachelorProgram> programs) {
+        boolean hasSpecialPrograms = programs.stream().anyMatch(BachelorProgram::getIsSpecialProgram);
+        return BachelorProgramService.pickRepresentativeProgram(country, programs)
+                .map(program -> AffinityCountryDTO.from(country, program, hasSpecialPrograms));
+    }
+
+    public static final class Matrix {
+
+        static final Matrix EMPTY = new Matrix(0, new long[0], new long[0], new AffinityCountryDTO[0], new int[0], new byte[0]);
+
+        // Incremented on every publish
+        private final long version;
+
+        // Sorted country ids: the index of an id is the country's ordinal in the matrix
+        private final long[] ids;
+        // Version of the matrix in which each country's profile last changed
+        private final long[] countryVersions;
+        private final AffinityCountryDTO[] countries;
+        // scores[a * n + b]
+        private final int[] scores;
+        // levels[(a * n + b) * CATEGORY_COUNT + category] holds the AffinityLevel ordinal
+        private final byte[] levels;
+
+        private Matrix(long version, long[] ids, long[] countryVersions, AffinityCountryDTO[] countries, int[] scores, byte[] levels) {
+            this.version = version;
+            this.ids = ids;
+            this.countryVersions = countryVersions;
+            this.countries = countries;
+            this.scores = scores;
+            this.levels = levels;
+        }
+
+        // Cells that involve changedId (or every cell when previous is null) are recomputed, the rest are copied
+        static Matrix build(List<AffinityCountryDTO> profiles, Matrix previous, Long changedId, long version) {
+            AffinityCountryDTO[] countries = profiles.stream()
+                    .sorted(Comparator.comparing(AffinityCountryDTO::id))
+                    .toArray(AffinityCountryDTO[]::new);
+            int n = countries.length;
+            long[] ids = new long[n];
+            long[] countryVersions = new long[n];
+            int[] previousOrdinals = new int[n];
+            for (int i = 0; i < n; i++) {
+                ids[i] = countries[i].id();
+                boolean reusable = previous != null && !countries[i].id().equals(changedId);
+                previousOrdinals[i] = reusable ? previous.ordinalOf(ids[i]) : -1;
+                countryVersions[i] = previousOrdinals[i] >= 0 ? previous.countryVersions[previousOrdinals[i]] : version;
+            }
+
+            int[] scores = new int[n * n];
+            byte[] levels = new byte[n * n * CATEGORY_COUNT];
+            for (int a = 0; a < n; a++) {
+                for (int b = 0; b < n; b++) {
+                    int cell = a * n + b;
+                    int oldA = previousOrdinals[a];
+                    int oldB = previousOrdinals[b];
+                    if (oldA >= 0 && oldB >= 0) {
+                        int oldCell = oldA * previous.size() + oldB;
+                        scores[cell] = previous.scores[oldCell];
+                        System.arraycopy(previous.levels, oldCell * CATEGORY_COUNT, levels, cell * CATEGORY_COUNT, CATEGORY_COUNT);
+                        continue;
+                    }
+
+                    AffinityLevel[] pairLevels = AffinityService.compareLevels(countries[a], countries[b]);
+                    scores[cell] = AffinityService.affinityPercentage(pairLevels);
+                    for (int c = 0; c < CATEGORY_COUNT; c++) {
+                        levels[cell * CATEGORY_COUNT + c] = (byte) pairLevels[c].ordinal();
+                    }
+                }
+            }
+            return new Matrix(version, ids, countryVersions, countries, scores, levels);
+        }
+
+        public long version() {
+            return version;
+        }
+
+        public long versionOf(int ordinal) {
+            return countryVersions[ordinal];
+        }
+
+        public int size() {
+            return ids.length;
+        }
+
+        // Returns -1 when the country is not in the matrix
+        public int ordinalOf(long countryId) {
+            int ordinal = Arrays.binarySearch(ids, countryId);
+            return ordinal >= 0 ? ordinal : -1;
+        }
+
+        public AffinityCountryDTO countryAt(int ordinal) {
+            return countries[ordinal];
+        }
+
+        public int score(int a, int b) {
+            return scores[a * ids.length + b];
+        }
+
+        public AffinityLevel level(int a, int b, AffinityCategory category) {
+            return LEVELS[levels[(a * ids.length + b) * CATEGORY_COUNT + category.ordinal()]];
+        }
+
+        // Best k ordinals for country a (highest score first, ties by ordinal), kept in a bounded min-heap
+        public int[] topCompatible(int a, int k, IntPredicate include) {
+            int[] heap = new int[Math.min(k, ids.length)];
+            int heapSize = 0;
+            for (int b = 0; b < ids.length; b++) {
+                if (b == a || !include.test(b)) continue;
+                if (heapSize < heap.length) {
+                    heap[heapSize] = b;
+                    siftUp(a, heap, heapSize++);
+                } else if (heap.length > 0 && ranksBefore(a, b, heap[0])) {
+                    heap[0] = b;
+                    siftDown(a, heap, heapSize);
+                }
+            }
+
+            // Drain the heap from the worst entry to the best one
+            int[] ranked = new int[heapSize];
+            for (int i = heapSize - 1; i >= 0; i--) {
+                ranked[i] = heap[0];
+                heap[0] = heap[--heapSize];
+                siftDown(a, heap, heapSize);
+            }
+            return ranked;
+        }
+
+        private boolean ranksBefore(int a, int b, int c) {
+            int scoreB = score(a, b);
+            int scoreC = score(a, c);
+            return scoreB != scoreC ? scoreB > scoreC : b < c;
+        }
+
+        private void siftUp(int a, int[] heap, int index) {
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (!ranksBefore(a, heap[parent], heap[index])) break;
+                swap(heap, parent, index);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int a, int[] heap, int heapSize) {
+            int index = 0;
+            while (true) {
+                int worst = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < heapSize && ranksBefore(a, heap[worst], heap[left])) worst = left;
+                if (right < heapSize && ranksBefore(a, heap[worst], heap[right])) worst = right;
+                if (worst == index) return;
+                swap(heap, worst, index);
+                index = worst;
+            }
+        }
+
+        private static void swap(int[] heap, int i, int j) {
+            int tmp = heap[i];
+            heap[i] = heap[j];
+            heap[j] = tmp;
+        }
+
+        public AffinityLevel[] levels(int a, int b) {
+            AffinityLevel[] pairLevels = new AffinityLevel[CATEGORY_COUNT];
+            int offset = (a * ids.length + b) * CATEGORY_COUNT;
+            for (int c = 0; c < CATEGORY_COUNT; c++) {
+                pairLevels[c] = LEVELS[levels[offset + c]];
+            }
+            return pairLevels;
+        }
+    }
+}
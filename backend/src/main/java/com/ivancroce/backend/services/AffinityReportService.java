@@ -0,0 +1,58 @@
+package com.ivancroce.backend.services;
+
+import com.ivancroce.backend.payloads.AffinityRespDTO;
+import com.ivancroce.backend.payloads.CacheStatsDTO;
+import com.ivancroce.backend.tools.AffinityReportPdfRenderer;
+import com.ivancroce.backend.tools.BoundedCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class AffinityReportService {
+
+    @Autowired
+    private AffinityService affinityService;
+
+    @Autowired
+    private AffinityMatrixService affinityMatrixService;
+
+    @Autowired
+    private AffinityReportPdfRenderer pdfRenderer;
+
+    private final BoundedCache<ReportKey, byte[]> pdfCache;
+
+    // The key carries the matrix version in which each country last changed, so editing a country or one of
+    // its programs makes the old entries unreachable; LRU eviction then drops them.
+    private record ReportKey(long countryA, long countryB, long versionA, long versionB) {
+    }
+
+    public AffinityReportService(@Value("${affinity.report.cache-max-bytes:16777216}") long cacheMaxBytes) {
+        this.pdfCache = new BoundedCache<>(cacheMaxBytes, pdf -> pdf.length);
+    }
+
+    public byte[] getReportPdf(Long countryAId, Long countryBId) {
+        AffinityMatrixService.Matrix matrix = affinityMatrixService.current();
+        int a = matrix.ordinalOf(countryAId);
+        int b = matrix.ordinalOf(countryBId);
+        if (a < 0 || b < 0) {
+            // Not in the matrix: render without caching (compare reports the 404 if a country is missing)
+            return pdfRenderer.render(affinityService.compare(countryAId, countryBId));
+        }
+
+        ReportKey key = new ReportKey(countryAId, countryBId, matrix.versionOf(a), matrix.versionOf(b));
+        byte[] pdf = pdfCache.get(key);
+        if (pdf == null) {
+            AffinityRespDTO report = AffinityService.toResponse(matrix.countryAt(a), matrix.countryAt(b), matrix.levels(a, b));
+            pdf = pdfRenderer.render(report);
+            pdfCache.put(key, pdf);
+        }
+        return pdf;
+    }
+
+    public List<CacheStatsDTO> cacheStats() {
+        return List.of(CacheStatsDTO.from("affinityReportPdfs", pdfCache));
+    }
+}
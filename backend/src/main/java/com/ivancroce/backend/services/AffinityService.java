@@ -0,0 +1,285 @@
+package com.ivancroce.backend.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ivancroce.backend.entities.BachelorProgram;
+import com.ivancroce.backend.entities.Country;
+import com.ivancroce.backend.enums.AffinityCategory;
+import com.ivancroce.backend.enums.AffinityLevel;
+import com.ivancroce.backend.exceptions.BadRequestException;
+import com.ivancroce.backend.exceptions.NotFoundException;
+import com.ivancroce.backend.payloads.AffinityBatchLineDTO;
+import com.ivancroce.backend.payloads.AffinityBatchRequest;
+import com.ivancroce.backend.payloads.AffinityCategoryDTO;
+import com.ivancroce.backend.payloads.AffinityCountryDTO;
+import com.ivancroce.backend.payloads.AffinityPairDTO;
+import com.ivancroce.backend.payloads.AffinityProgramDTO;
+import com.ivancroce.backend.payloads.AffinityRespDTO;
+import com.ivancroce.backend.payloads.CompatibleCountryDTO;
+import com.ivancroce.backend.repositories.BachelorProgramRepository;
+import com.ivancroce.backend.repositories.CountryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@Service
+@Slf4j
+public class AffinityService {
+
+    private static final AffinityCategory[] CATEGORIES = AffinityCategory.values();
+
+    @Autowired
+    private CountryRepository countryRepository;
+
+    @Autowired
+    private BachelorProgramRepository bachelorProgramRepository;
+
+    @Autowired
+    private AffinityMatrixService affinityMatrixService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${affinity.batch.pool-size:4}")
+    private int batchPoolSize;
+
+    @Value("${affinity.batch.queue-capacity:256}")
+    private int batchQueueCapacity;
+
+    @Value("${affinity.batch.max-in-flight:64}")
+    private int maxInFlight;
+
+    private ThreadPoolExecutor batchExecutor;
+
+    @PostConstruct
+    public void startBatchExecutor() {
+        // When the queue is full the streaming thread computes the pair itself, which slows the producer down
+        batchExecutor = new ThreadPoolExecutor(batchPoolSize, batchPoolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(batchQueueCapacity),
+                Thread.ofPlatform().name("affinity-batch-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void stopBatchExecutor() {
+        batchExecutor.shutdownNow();
+    }
+
+    public AffinityRespDTO compare(Long countryAId, Long countryBId) {
+        AffinityRespDTO precomputed = affinityMatrixService.getComparison(countryAId, countryBId);
+        if (precomputed != null) {
+            return precomputed;
+        }
+
+        // Not in the matrix yet (still building) or one side is missing: the database path reports the right 404
+        List<Long> ids = List.of(countryAId, countryBId);
+
+        // One query for both countries and one for all their programs
+        Map<Long, Country> countries = countryRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Country::getId, Function.identity()));
+        Map<Long, List<BachelorProgram>> programsByCountry = bachelorProgramRepository.findByCountryIdIn(ids).stream()
+                .collect(Collectors.groupingBy(BachelorProgram::getCountryId));
+
+        AffinityCountryDTO countryA = toAffinityCountry(countryAId, countries, programsByCountry);
+        AffinityCountryDTO countryB = toAffinityCountry(countryBId, countries, programsByCountry);
+
+        return toResponse(countryA, countryB, compareLevels(countryA, countryB));
+    }
+
+    public List<CompatibleCountryDTO> findMostCompatible(Long countryId, int k, Integer eqfLevel,
+                                                         Integer duration, Boolean isSpecialProgram) {
+        if (k < 1) throw new BadRequestException("k must be at least 1");
+        if (k > 50) k = 50;
+
+        AffinityMatrixService.Matrix matrix = affinityMatrixService.current();
+        int ordinal = matrix.ordinalOf(countryId);
+        if (ordinal < 0) {
+            if (!countryRepository.existsById(countryId)) {
+                throw new NotFoundException("Country not found with id: " + countryId);
+            }
+            throw new NotFoundException("No programs found for country " + countryId);
+        }
+
+        // eqfLevel and duration filter on the representative program; isSpecialProgram on whether the country offers
+        // any special program (the representative one is never special when a standard one exists)
+        int[] ranked = matrix.topCompatible(ordinal, k, candidate -> {
+            AffinityCountryDTO country = matrix.countryAt(candidate);
+            AffinityProgramDTO program = country.program();
+            return (eqfLevel == null || eqfLevel.equals(program.eqfLevel())) &&
+                    (duration == null || duration.equals(program.duration())) &&
+                    (isSpecialProgram == null || isSpecialProgram == country.hasSpecialPrograms());
+        });
+
+        List<CompatibleCountryDTO> result = new ArrayList<>(ranked.length);
+        for (int candidate : ranked) {
+            result.add(CompatibleCountryDTO.from(matrix.countryAt(candidate), matrix.score(ordinal, candidate),
+                    overallAffinity(matrix.levels(ordinal, candidate))));
+        }
+        return result;
+    }
+
+    // --- BATCH ---
+
+    public void validateBatch(AffinityBatchRequest request) {
+        boolean hasPairs = request.pairs() != null && !request.pairs().isEmpty();
+        boolean hasCountryIds = request.countryIds() != null && !request.countryIds().isEmpty();
+        if (hasPairs == hasCountryIds) {
+            throw new BadRequestException("Provide either a list of pairs or a list of country ids");
+        }
+        if (hasCountryIds && request.countryIds().stream().anyMatch(Objects::isNull)) {
+            throw new BadRequestException("Country ids cannot be null");
+        }
+        // @Valid checks the fields of each pair, not a null element itself
+        if (hasPairs && request.pairs().stream().anyMatch(Objects::isNull)) {
+            throw new BadRequestException("Pairs cannot be null");
+        }
+    }
+
+    // Writes one JSON line per pair, in request order. At most maxInFlight pairs are pending at any time,
+    // so memory doesn't grow with the batch size and the first lines are flushed before the batch ends.
+    public void streamBatch(AffinityBatchRequest request, OutputStream out) throws IOException {
+        Iterator<AffinityPairDTO> pairs = batchPairs(request);
+        Deque<CompletableFuture<AffinityBatchLineDTO>> inFlight = new ArrayDeque<>(maxInFlight);
+
+        while (pairs.hasNext()) {
+            AffinityPairDTO pair = pairs.next();
+            inFlight.add(CompletableFuture.supplyAsync(() -> compareLine(pair), batchExecutor));
+            if (inFlight.size() >= maxInFlight) {
+                writeLine(out, inFlight.poll().join());
+            }
+        }
+        while (!inFlight.isEmpty()) {
+            writeLine(out, inFlight.poll().join());
+        }
+    }
+
+    private Iterator<AffinityPairDTO> batchPairs(AffinityBatchRequest request) {
+        if (request.pairs() != null && !request.pairs().isEmpty()) {
+            return request.pairs().iterator();
+        }
+
+        // Every unordered pair of the given ids, generated lazily
+        List<Long> ids = request.countryIds().stream().distinct().toList();
+        return IntStream.range(0, ids.size()).boxed()
+                .flatMap(i -> IntStream.range(i + 1, ids.size())
+                        .mapToObj(j -> new AffinityPairDTO(ids.get(i), ids.get(j))))
+                .iterator();
+    }
+
+    // The response is already streaming: any failure becomes this line's error, the other lines still follow
+    private AffinityBatchLineDTO compareLine(AffinityPairDTO pair) {
+        try {
+            return new AffinityBatchLineDTO(pair.countryA(), pair.countryB(), compare(pair.countryA(), pair.countryB()), null);
+        } catch (NotFoundException | BadRequestException e) {
+            return new AffinityBatchLineDTO(pair.countryA(), pair.countryB(), null, e.getMessage());
+        } catch (RuntimeException e) {
+            log.warn("Batch comparison {} - {} failed", pair.countryA(), pair.countryB(), e);
+            return new AffinityBatchLineDTO(pair.countryA(), pair.countryB(), null, "Comparison failed");
+        }
+    }
+
+    private void writeLine(OutputStream out, AffinityBatchLineDTO line) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(line));
+        out.write('\n');
+        out.flush();
+    }
+
+    private AffinityCountryDTO toAffinityCountry(Long countryId, Map<Long, Country> countries,
+                                                 Map<Long, List<BachelorProgram>> programsByCountry) {
+        Country country = countries.get(countryId);
+        if (country == null) {
+            throw new NotFoundException("Country not found with id: " + countryId);
+        }
+
+        List<BachelorProgram> programs = programsByCountry.getOrDefault(countryId, List.of());
+        BachelorProgram representative = BachelorProgramService.pickRepresentativeProgram(country, programs)
+                .orElseThrow(() -> new NotFoundException("No programs found for country " + countryId));
+        boolean hasSpecialPrograms = programs.stream().anyMatch(BachelorProgram::getIsSpecialProgram);
+
+        return AffinityCountryDTO.from(country, representative, hasSpecialPrograms);
+    }
+
+    // --- SCORING ---
+
+    // Levels indexed by AffinityCategory ordinal
+    public static AffinityLevel[] compareLevels(AffinityCountryDTO a, AffinityCountryDTO b) {
+        AffinityLevel[] levels = new AffinityLevel[CATEGORIES.length];
+        levels[AffinityCategory.DURATION.ordinal()] = durationAffinity(a.program().duration(), b.program().duration());
+        levels[AffinityCategory.CREDITS.ordinal()] = creditsAffinity(a.program().totalCredits(), b.program().totalCredits());
+        levels[AffinityCategory.CREDIT_RATIO.ordinal()] = creditRatioAffinity(a.creditRatio(), b.creditRatio());
+        levels[AffinityCategory.EQF.ordinal()] = eqfAffinity(a.program().eqfLevel(), b.program().eqfLevel());
+        levels[AffinityCategory.GRADING.ordinal()] = AffinityLevel.CAN_ALWAYS_BE_CONVERTED;
+        return levels;
+    }
+
+    public static AffinityLevel durationAffinity(int durationA, int durationB) {
+        int diff = Math.abs(durationA - durationB);
+        if (diff == 0) return AffinityLevel.EQUIVALENT;
+        if (diff == 1) return AffinityLevel.MODERATE;
+        return AffinityLevel.LOW;
+    }
+
+    public static AffinityLevel creditsAffinity(int creditsA, int creditsB) {
+        double percentage = Math.abs(creditsA - creditsB) * 100.0 / Math.max(creditsA, creditsB);
+        if (percentage <= 10) return AffinityLevel.EQUIVALENT;
+        if (percentage <= 25) return AffinityLevel.MODERATE;
+        return AffinityLevel.LOW;
+    }
+
+    public static AffinityLevel creditRatioAffinity(String ratioA, String ratioB) {
+        return Objects.equals(ratioA, ratioB) ? AffinityLevel.EQUIVALENT : AffinityLevel.MODERATE;
+    }
+
+    public static AffinityLevel eqfAffinity(int eqfA, int eqfB) {
+        return durationAffinity(eqfA, eqfB);
+    }
+
+    public static int affinityPercentage(AffinityLevel[] levels) {
+        int total = 0;
+        int score = 0;
+        for (AffinityLevel level : levels) {
+            if (!level.isComparable()) continue;
+            total++;
+            if (level == AffinityLevel.EQUIVALENT) score += 100;
+            else if (level == AffinityLevel.MODERATE) score += 60;
+        }
+        return total == 0 ? 0 : Math.round((float) score / total);
+    }
+
+    public static AffinityLevel overallAffinity(AffinityLevel[] levels) {
+        boolean allEquivalent = true;
+        for (AffinityLevel level : levels) {
+            if (!level.isComparable()) continue;
+            if (level == AffinityLevel.LOW) return AffinityLevel.LOW;
+            if (level != AffinityLevel.EQUIVALENT) allEquivalent = false;
+        }
+        return allEquivalent ? AffinityLevel.EQUIVALENT : AffinityLevel.MODERATE;
+    }
+
+    public static AffinityRespDTO toResponse(AffinityCountryDTO a, AffinityCountryDTO b, AffinityLevel[] levels) {
+        List<AffinityCategoryDTO> categories = new ArrayList<>(CATEGORIES.length);
+        for (AffinityCategory category : CATEGORIES) {
+            categories.add(new AffinityCategoryDTO(category, levels[category.ordinal()]));
+        }
+        return new AffinityRespDTO(a, b, categories, affinityPercentage(levels), overallAffinity(levels));
+    }
+}
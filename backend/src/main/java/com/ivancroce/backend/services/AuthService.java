@@ -4,11 +4,12 @@ import com.ivancroce.backend.entities.User;
 import com.ivancroce.backend.exceptions.UnauthorizedException;
 import com.ivancroce.backend.payloads.UserLoginDTO;
 import com.ivancroce.backend.tools.JWTTools;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 @Service
+@Slf4j
 public class AuthService {
     @Autowired
     private UserService userService;
@@ -17,11 +18,25 @@ public class AuthService {
     private JWTTools jwtTools;
 
     @Autowired
-    private PasswordEncoder bCrypt;
+    private PasswordHashingService passwordHashingService;
 
     public String checkEmailBeforeLogin(UserLoginDTO payload) {
         User found = userService.findByEmail(payload.email());
-        if (bCrypt.matches(payload.password(), found.getPassword())) {
+        if (passwordHashingService.matches(payload.password(), found.getPassword())) {
+            if (passwordHashingService.needsRehash(found.getPassword())) {
+                Long userId = found.getId();
+                String previousHash = found.getPassword();
+                passwordHashingService.encodeInBackground(payload.password())
+                        .thenAccept(hash -> {
+                            if (!userService.updatePasswordHash(userId, previousHash, hash)) {
+                                log.info("Password re-hash for user {} skipped: the password changed meanwhile", userId);
+                            }
+                        })
+                        .exceptionally(ex -> {
+                            log.warn("Password re-hash for user {} skipped: {}", userId, ex.getMessage());
+                            return null;
+                        });
+            }
             return jwtTools.createToken(found);
         } else {
             throw new UnauthorizedException("Unauthorized - try again");
@@ -5,55 +5,141 @@ import com.ivancroce.backend.entities.Country;
 import com.ivancroce.backend.exceptions.BadRequestException;
 import com.ivancroce.backend.exceptions.NotFoundException;
 import com.ivancroce.backend.payloads.BachelorRegistrationDTO;
+import com.ivancroce.backend.payloads.CacheStatsDTO;
+import com.ivancroce.backend.payloads.CursorPageDTO;
+import com.ivancroce.backend.payloads.ProgramRow;
 import com.ivancroce.backend.repositories.BachelorProgramRepository;
 import com.ivancroce.backend.repositories.CountryRepository;
+import com.ivancroce.backend.tools.BoundedCache;
+import com.ivancroce.backend.tools.KeysetCursor;
+import com.ivancroce.backend.tools.SortableFields;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 
 @Service
 public class BachelorProgramService {
+    private static final SortableFields SORTABLE_FIELDS = SortableFields.of("id", "countryId", "duration");
 @Autowired
     private BachelorProgramRepository bachelorProgramRepository;
 @Autowired
     private CountryRepository countryRepository;
+@Autowired
+    private AffinityMatrixService affinityMatrixService;
+@Autowired
+    private DatasetVersionService datasetVersionService;
+@Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Public lookups are read-through cached per country; every program write (and country update/delete) evicts
+    private final BoundedCache<Long, BachelorProgram> representativeProgramCache;
+    private final BoundedCache<Long, Boolean> specialProgramCache;
+
+    public BachelorProgramService(@Value("${cache.programs.max-entries:256}") long maxEntries) {
+        this.representativeProgramCache = new BoundedCache<>(maxEntries);
+        this.specialProgramCache = new BoundedCache<>(maxEntries);
+    }
 
 public BachelorProgram findById(Long id) {
     return bachelorProgramRepository.findById(id)
             .orElseThrow(() -> new NotFoundException("Bachelor program not found with id: " + id));
 }
 
-    public Page<BachelorProgram> findAllPrograms(int page, int size, String sortBy) {
+    // Listings are read-only projections: no entities, no snapshots, no flush
+    @Transactional(readOnly = true)
+    public Page<ProgramRow> findAllPrograms(int page, int size, String sortBy) {
         if (size > 50) size = 50;
-        Pageable pageable = PageRequest.of(page, size, Sort.by(sortBy).ascending());
-        return bachelorProgramRepository.findAll(pageable);
+        Pageable pageable = PageRequest.of(page, size, SORTABLE_FIELDS.ascending(sortBy));
+        return bachelorProgramRepository.findRows(Specification.unrestricted(), pageable);
     }
 
     public List<BachelorProgram> findByCountryId(Long countryId) {
         return bachelorProgramRepository.findByCountryId(countryId);
     }
 
+    // A load that overlaps an eviction returns its value but doesn't cache it (see BoundedCache.getOrLoad)
     public BachelorProgram getRepresentativeProgramForCountry(Long countryId) {
-        // Try the "standard" program first (16 years)
-        Optional<BachelorProgram> standardProgram = bachelorProgramRepository
-                .findStandardProgramForCountry(countryId);
+        return representativeProgramCache.getOrLoad(countryId, this::loadRepresentativeProgram);
+    }
+
+    public boolean hasSpecialProgram(Long countryId) {
+        return specialProgramCache.getOrLoad(countryId, bachelorProgramRepository::existsByCountryIdAndIsSpecialProgramTrue);
+    }
+
+    public void evictCountry(Long countryId) {
+        representativeProgramCache.invalidate(countryId);
+        specialProgramCache.invalidate(countryId);
+    }
+
+    public void evictAll() {
+        representativeProgramCache.invalidateAll();
+        specialProgramCache.invalidateAll();
+    }
+
+    public List<CacheStatsDTO> cacheStats() {
+        return List.of(
+                CacheStatsDTO.from("representativePrograms", representativeProgramCache),
+                CacheStatsDTO.from("specialPrograms", specialProgramCache)
+        );
+    }
+
+    private BachelorProgram loadRepresentativeProgram(Long countryId) {
+        return bachelorProgramRepository.findRepresentativeProgram(countryId)
+                .orElseThrow(() -> new NotFoundException("No programs found for country " + countryId));
+    }
+
+    // The representative program rule: the standard (non-special) program that completes 16 years of schooling,
+    // otherwise the longest one. Stored on the country by assignRepresentativeProgram, also applied in memory by
+    // the affinity matrix
+    public static Optional<BachelorProgram> pickRepresentativeProgram(Country country, List<BachelorProgram> programs) {
+        int standardDuration = 16 - country.getYearsCompulsorySchooling();
+
+        Optional<BachelorProgram> standardProgram = programs.stream()
+                .filter(program -> program.getDuration() == standardDuration && !program.getIsSpecialProgram())
+                .findFirst();
 
         if (standardProgram.isPresent()) {
-            return standardProgram.get();
+            return standardProgram;
         }
 
-        // Fallback
-        return bachelorProgramRepository.findLongestProgramForCountry(countryId)
-                .orElseThrow(() -> new NotFoundException("No programs found for country " + countryId));
+        return programs.stream().max(Comparator.comparing(BachelorProgram::getDuration));
+    }
+
+    // Programs must already have their ids (persisted); the country is written on flush
+    public static void assignRepresentativeProgram(Country country, List<BachelorProgram> programs) {
+        country.setRepresentativeProgramId(pickRepresentativeProgram(country, programs).map(BachelorProgram::getId).orElse(null));
+    }
+
+    // Inside the caller's transaction: the query flushes pending program writes first, so it sees them
+    public void refreshRepresentativeProgram(Country country) {
+        assignRepresentativeProgram(country, bachelorProgramRepository.findByCountryId(country.getId()));
+    }
+
+    // Fills the pointer for countries imported before it existed
+    @Transactional
+    public void backfillRepresentativePrograms() {
+        List<Country> countries = countryRepository.findMissingRepresentativeProgram();
+        if (countries.isEmpty()) return;
+        Map<Long, List<BachelorProgram>> programsByCountry = bachelorProgramRepository
+                .findByCountryIdIn(countries.stream().map(Country::getId).toList()).stream()
+                .collect(Collectors.groupingBy(BachelorProgram::getCountryId));
+        countries.forEach(country -> assignRepresentativeProgram(country, programsByCountry.getOrDefault(country.getId(), List.of())));
     }
 
     private BachelorProgram mapToEntity(BachelorRegistrationDTO dto, Country country) {
@@ -68,16 +154,26 @@ public BachelorProgram findById(Long id) {
     }
 
     public BachelorProgram save(BachelorRegistrationDTO dto) {
-    Country country = countryRepository.findById(dto.countryId())
-                .orElseThrow(() -> new NotFoundException("Country not found with id: " + dto.countryId()));
-        // Check that there is not already a program with the same duration for this country
-        if (bachelorProgramRepository.existsByCountryIdAndDuration(dto.countryId(), dto.duration())) {
-            throw new BadRequestException("Program with duration " + dto.duration() +
-                    " years already exists for country " + country.getName());
-        }
+        // The program and the country's representative pointer commit together; caches and the matrix follow the commit
+        BachelorProgram savedProgram = new TransactionTemplate(transactionManager).execute(status -> {
+            Country country = countryRepository.findById(dto.countryId())
+                    .orElseThrow(() -> new NotFoundException("Country not found with id: " + dto.countryId()));
+            // Check that there is not already a program with the same duration for this country
+            if (bachelorProgramRepository.existsByCountryIdAndDuration(dto.countryId(), dto.duration())) {
+                throw new BadRequestException("Program with duration " + dto.duration() +
+                        " years already exists for country " + country.getName());
+            }
 
-        BachelorProgram program = mapToEntity(dto, country);
-        return bachelorProgramRepository.save(program);
+            BachelorProgram program = bachelorProgramRepository.save(mapToEntity(dto, country));
+            refreshRepresentativeProgram(country);
+            return program;
+        });
+        // countryId is a read-only column, only set once the row is read back
+        Long countryId = savedProgram.getCountry().getId();
+        evictCountry(countryId);
+        affinityMatrixService.refreshCountry(countryId);
+        datasetVersionService.bump();
+        return savedProgram;
     }
 
     private void updateProgramFromDto(BachelorProgram program, BachelorRegistrationDTO dto, Country country) {
@@ -91,30 +187,77 @@ public BachelorProgram findById(Long id) {
     }
 
     public BachelorProgram findByIdAndUpdate(Long id, BachelorRegistrationDTO dto) {
-        BachelorProgram existingProgram = findById(id);
+        Long[] previousCountryId = new Long[1];
+        BachelorProgram savedProgram = new TransactionTemplate(transactionManager).execute(status -> {
+            BachelorProgram existingProgram = findById(id);
 
-        // If the duration changes, check that it does not already exist
-        if (!existingProgram.getDuration().equals(dto.duration()) &&
-                bachelorProgramRepository.existsByCountryIdAndDuration(dto.countryId(), dto.duration())) {
-            throw new BadRequestException("Program with duration " + dto.duration() +
-                    " years already exists for this country");
-        }
+            // If the duration changes, check that it does not already exist
+            if (!existingProgram.getDuration().equals(dto.duration()) &&
+                    bachelorProgramRepository.existsByCountryIdAndDuration(dto.countryId(), dto.duration())) {
+                throw new BadRequestException("Program with duration " + dto.duration() +
+                        " years already exists for this country");
+            }
+
+            Country country = countryRepository.findById(dto.countryId())
+                    .orElseThrow(() -> new NotFoundException("Country not found with id: " + dto.countryId()));
 
-        Country country = countryRepository.findById(dto.countryId())
-                .orElseThrow(() -> new NotFoundException("Country not found with id: " + dto.countryId()));
+            previousCountryId[0] = existingProgram.getCountryId();
+            Country previousCountry = existingProgram.getCountry();
+            updateProgramFromDto(existingProgram, dto, country);
+            BachelorProgram program = bachelorProgramRepository.save(existingProgram);
+            refreshRepresentativeProgram(country);
+            if (!country.getId().equals(previousCountryId[0])) {
+                refreshRepresentativeProgram(previousCountry);
+            }
+            return program;
+        });
 
-        updateProgramFromDto(existingProgram, dto, country);
-        return bachelorProgramRepository.save(existingProgram);
+        // The program may have moved to another country: both countries change
+        Long countryId = savedProgram.getCountry().getId();
+        evictCountry(countryId);
+        affinityMatrixService.refreshCountry(countryId);
+        if (!countryId.equals(previousCountryId[0])) {
+            evictCountry(previousCountryId[0]);
+            affinityMatrixService.refreshCountry(previousCountryId[0]);
+        }
+        datasetVersionService.bump();
+        return savedProgram;
     }
 
     public void deleteProgram(Long id) {
-        BachelorProgram program = findById(id);
-        bachelorProgramRepository.delete(program);
+        BachelorProgram program = new TransactionTemplate(transactionManager).execute(status -> {
+            BachelorProgram existingProgram = findById(id);
+            bachelorProgramRepository.delete(existingProgram);
+            refreshRepresentativeProgram(existingProgram.getCountry());
+            return existingProgram;
+        });
+        evictCountry(program.getCountryId());
+        affinityMatrixService.refreshCountry(program.getCountryId());
+        datasetVersionService.bump();
     }
 
-    public Page<BachelorProgram> searchBachelorPrograms(Long countryId, Integer duration, Boolean isSpecialProgram,
+    @Transactional(readOnly = true)
+    public Page<ProgramRow> searchBachelorPrograms(Long countryId, Integer duration, Boolean isSpecialProgram,
                                                         int page, int size, String sortBy, String direction) {
+        Specification<BachelorProgram> specification = searchSpecification(countryId, duration, isSpecialProgram);
+
+        Pageable pageable = PageRequest.of(page, size, SORTABLE_FIELDS.sort(sortBy, direction));
+
+        return bachelorProgramRepository.findRows(specification, pageable);
+    }
+
+    // Same filters, keyset pages: "after" is the nextCursor of the previous page (empty for the first one)
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ProgramRow> scrollBachelorPrograms(Long countryId, Integer duration, Boolean isSpecialProgram,
+                                                            String after, int size, String sortBy, String direction) {
+        if (size > 50) size = 50;
+        Sort sort = SORTABLE_FIELDS.sort(sortBy, direction);
+        Specification<BachelorProgram> specification = searchSpecification(countryId, duration, isSpecialProgram);
+
+        return KeysetCursor.page(bachelorProgramRepository.scrollRows(specification, sort, size, KeysetCursor.decode(after, sort, BachelorProgram.class)), sort);
+    }
 
+    private static Specification<BachelorProgram> searchSpecification(Long countryId, Integer duration, Boolean isSpecialProgram) {
         Specification<BachelorProgram> countrySpec = (root, query, builder) ->
                 countryId == null ? null : builder.equal(root.get("country").get("id"), countryId);
 
@@ -124,14 +267,9 @@ public BachelorProgram findById(Long id) {
         Specification<BachelorProgram> specialProgramSpec = (root, query, builder) ->
                 isSpecialProgram == null ? null : builder.equal(root.get("isSpecialProgram"), isSpecialProgram);
 
-        Specification<BachelorProgram> specification = Specification.<BachelorProgram>unrestricted()
+        return Specification.<BachelorProgram>unrestricted()
                 .and(countrySpec)
                 .and(durationSpec)
                 .and(specialProgramSpec);
-
-        Sort sort = direction.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
-        Pageable pageable = PageRequest.of(page, size, sort);
-
-        return bachelorProgramRepository.findAll(specification, pageable);
     }
 }
@@ -1,43 +1,166 @@
 package com.ivancroce.backend.services;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ivancroce.backend.entities.Country;
 
 import com.ivancroce.backend.exceptions.BadRequestException;
 import com.ivancroce.backend.exceptions.NotFoundException;
+import com.ivancroce.backend.payloads.CacheStatsDTO;
+import com.ivancroce.backend.payloads.CountryDetailsDTO;
 import com.ivancroce.backend.payloads.CountryRegistrationDTO;
 import com.ivancroce.backend.payloads.CountryRespDTO;
+import com.ivancroce.backend.payloads.CountryRow;
+import com.ivancroce.backend.payloads.CursorPageDTO;
 import com.ivancroce.backend.repositories.CountryRepository;
+import com.ivancroce.backend.tools.BoundedCache;
+import com.ivancroce.backend.tools.GradeScale;
+import com.ivancroce.backend.tools.KeysetCursor;
+import com.ivancroce.backend.tools.SortableFields;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
 
 @Service
 public class CountryService {
 
+    // Largest GET /api/countries?ids= batch
+    private static final int MAX_BATCH_IDS = 50;
+
+    private static final SortableFields SORTABLE_FIELDS = SortableFields.of("id", "name", "yearsCompulsorySchooling");
+
     @Autowired
     private CountryRepository countryRepository;
 
+    @Autowired
+    private AffinityMatrixService affinityMatrixService;
+
+    @Autowired
+    private DatasetVersionService datasetVersionService;
+
+    @Autowired
+    private GradeConversionService gradeConversionService;
+
+    @Autowired
+    private BachelorProgramService bachelorProgramService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Serialised /simple response (plain and gzip), rebuilt only when countries change
+    private volatile SimpleCountriesSnapshot simpleSnapshot;
+
+    // Public lookups are read-through cached; admin writes evict the entry
+    private final BoundedCache<Long, Country> countryCache;
+
+    public CountryService(@Value("${cache.countries.max-entries:256}") long maxEntries) {
+        this.countryCache = new BoundedCache<>(maxEntries);
+    }
+
+    // A load that overlaps an eviction returns its value but doesn't cache it (see BoundedCache.getOrLoad)
     public Country findById(Long id) {
+        return countryCache.getOrLoad(id, this::findEntityById);
+    }
+
+    // "1,5,9" -> details keyed by id, in request order; unknown ids are left out
+    @Transactional(readOnly = true)
+    public Map<Long, CountryDetailsDTO> findDetailsByIds(String ids) {
+        Set<Long> idSet = new LinkedHashSet<>();
+        for (String id : ids.split(",")) {
+            if (id.isBlank()) continue;
+            try {
+                idSet.add(Long.parseLong(id.trim()));
+            } catch (NumberFormatException e) {
+                throw new BadRequestException("Invalid country id: " + id.trim());
+            }
+        }
+        if (idSet.isEmpty()) {
+            throw new BadRequestException("ids must list at least one country id");
+        }
+        if (idSet.size() > MAX_BATCH_IDS) {
+            throw new BadRequestException("At most " + MAX_BATCH_IDS + " country ids per request");
+        }
+
+        Map<Long, CountryDetailsDTO> found = new HashMap<>();
+        countryRepository.findDetailsByIdIn(idSet).forEach(details -> found.put(details.country().getId(), details));
+        Map<Long, CountryDetailsDTO> result = new LinkedHashMap<>();
+        for (Long id : idSet) {
+            CountryDetailsDTO details = found.get(id);
+            if (details != null) result.put(id, details);
+        }
+        return result;
+    }
+
+    // Uncached, for the write paths
+    private Country findEntityById(Long id) {
         return countryRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Country not found with id: " + id));
     }
 
-    public Page<Country> findAllCountries(int page, int size, String sortBy) {
+    public List<CacheStatsDTO> cacheStats() {
+        return List.of(CacheStatsDTO.from("countries", countryCache));
+    }
+
+    // Listings are read-only projections: no entities, no snapshots, no flush
+    @Transactional(readOnly = true)
+    public Page<CountryRow> findAllCountries(int page, int size, String sortBy) {
         if (size > 50) size = 50;
-        Pageable pageable = PageRequest.of(page, size, Sort.by(sortBy).ascending());
-        return countryRepository.findAll(pageable);
+        Pageable pageable = PageRequest.of(page, size, SORTABLE_FIELDS.ascending(sortBy));
+        return countryRepository.findRows(Specification.unrestricted(), pageable);
     }
 
-    public Page<Country> searchCountries(Long id, Integer yearsCompulsorySchooling,
+    @Transactional(readOnly = true)
+    public Page<CountryRow> searchCountries(Long id, Integer yearsCompulsorySchooling, Double gradeMin, Double gradeMax,
+                                         Boolean gradeAscending, Integer creditHoursMin, Integer creditHoursMax,
                                          int page, int size, String sortBy, String direction) {
+        Specification<Country> specification = searchSpecification(id, yearsCompulsorySchooling, gradeMin, gradeMax,
+                gradeAscending, creditHoursMin, creditHoursMax);
+
+        Pageable pageable = PageRequest.of(page, size, SORTABLE_FIELDS.sort(sortBy, direction));
+
+        return countryRepository.findRows(specification, pageable);
+    }
 
+    // Same filters, keyset pages: "after" is the nextCursor of the previous page (empty for the first one)
+    @Transactional(readOnly = true)
+    public CursorPageDTO<CountryRow> scrollCountries(Long id, Integer yearsCompulsorySchooling, Double gradeMin, Double gradeMax,
+                                                   Boolean gradeAscending, Integer creditHoursMin, Integer creditHoursMax,
+                                                   String after, int size, String sortBy, String direction) {
+        if (size > 50) size = 50;
+        Sort sort = SORTABLE_FIELDS.sort(sortBy, direction);
+        Specification<Country> specification = searchSpecification(id, yearsCompulsorySchooling, gradeMin, gradeMax,
+                gradeAscending, creditHoursMin, creditHoursMax);
+
+        return KeysetCursor.page(countryRepository.scrollRows(specification, sort, size, KeysetCursor.decode(after, sort, Country.class)), sort);
+    }
+
+    private static Specification<Country> searchSpecification(Long id, Integer yearsCompulsorySchooling, Double gradeMin,
+                                                              Double gradeMax, Boolean gradeAscending,
+                                                              Integer creditHoursMin, Integer creditHoursMax) {
         Specification<Country> countrySpec = (root, query, builder) ->
                 id == null ? null : builder.equal(root.get("id"), id);
 
@@ -46,26 +169,85 @@ public class CountryService {
                         null :
                         builder.equal(root.get("yearsCompulsorySchooling"), yearsCompulsorySchooling);
 
-        Specification<Country> specification = Specification.<Country>unrestricted()
-                .and(countrySpec)
-                .and(yearsSpec);
+        // Scale fully inside [gradeMin, gradeMax]
+        Specification<Country> gradeMinSpec = (root, query, builder) ->
+                gradeMin == null ? null : builder.greaterThanOrEqualTo(root.get("gradeMin"), gradeMin);
+
+        Specification<Country> gradeMaxSpec = (root, query, builder) ->
+                gradeMax == null ? null : builder.lessThanOrEqualTo(root.get("gradeMax"), gradeMax);
+
+        Specification<Country> gradeAscendingSpec = (root, query, builder) ->
+                gradeAscending == null ? null : builder.equal(root.get("gradeAscending"), gradeAscending);
+
+        // Hours per ECTS fully inside [creditHoursMin, creditHoursMax]
+        Specification<Country> creditHoursMinSpec = (root, query, builder) ->
+                creditHoursMin == null ? null : builder.greaterThanOrEqualTo(root.get("creditHoursLow"), creditHoursMin);
 
-        Sort sort = direction.equalsIgnoreCase("desc") ?
-                Sort.by(sortBy).descending() :
-                Sort.by(sortBy).ascending();
-        Pageable pageable = PageRequest.of(page, size, sort);
+        Specification<Country> creditHoursMaxSpec = (root, query, builder) ->
+                creditHoursMax == null ? null : builder.lessThanOrEqualTo(root.get("creditHoursHigh"), creditHoursMax);
 
-        return countryRepository.findAll(specification, pageable);
+        return Specification.<Country>unrestricted()
+                .and(countrySpec)
+                .and(yearsSpec)
+                .and(gradeMinSpec)
+                .and(gradeMaxSpec)
+                .and(gradeAscendingSpec)
+                .and(creditHoursMinSpec)
+                .and(creditHoursMaxSpec);
     }
 
     private Country mapToEntity(CountryRegistrationDTO dto) {
-        return new Country(
+        Country country = new Country(
                 dto.name(),
                 dto.yearsCompulsorySchooling(),
                 dto.gradingSystem(),
                 dto.creditRatio(),
                 dto.countryCode()
         );
+        updateParsedColumns(country);
+        return country;
+    }
+
+    // Keeps the typed columns in sync with the gradingSystem and creditRatio strings
+    public static void updateParsedColumns(Country country) {
+        GradeScale scale = GradeScale.compile(country.getId(), country.getCountryCode(), country.getGradingSystem());
+        boolean numeric = scale != null && !scale.isLetterScale();
+        country.setGradeMin(numeric ? Math.min(scale.getWorst(), scale.getBest()) : null);
+        country.setGradeMax(numeric ? Math.max(scale.getWorst(), scale.getBest()) : null);
+        country.setGradeAscending(numeric ? scale.getBest() > scale.getWorst() : null);
+
+        // "25/30" -> 25..30, "30" -> 30..30
+        Integer low = null;
+        Integer high = null;
+        String ratio = country.getCreditRatio();
+        if (ratio != null) {
+            int separator = ratio.indexOf('/');
+            low = parseLeadingInt(separator < 0 ? ratio : ratio.substring(0, separator));
+            high = separator < 0 ? low : parseLeadingInt(ratio.substring(separator + 1));
+        }
+        country.setCreditHoursLow(low != null && high != null ? Math.min(low, high) : null);
+        country.setCreditHoursHigh(low != null && high != null ? Math.max(low, high) : null);
+    }
+
+    private static Integer parseLeadingInt(String value) {
+        String trimmed = value.trim();
+        int end = 0;
+        while (end < trimmed.length() && Character.isDigit(trimmed.charAt(end))) end++;
+        return end == 0 ? null : Integer.parseInt(trimmed.substring(0, end));
+    }
+
+    // Fills the typed columns for rows created before they existed
+    public void backfillParsedColumns() {
+        List<Country> changed = countryRepository.findAll().stream()
+                .filter(country -> {
+                    Double gradeMin = country.getGradeMin();
+                    Integer creditHoursLow = country.getCreditHoursLow();
+                    updateParsedColumns(country);
+                    return !Objects.equals(gradeMin, country.getGradeMin()) ||
+                            !Objects.equals(creditHoursLow, country.getCreditHoursLow());
+                })
+                .toList();
+        countryRepository.saveAll(changed);
     }
 
     public Country save(CountryRegistrationDTO dto) {
@@ -75,7 +257,12 @@ public class CountryService {
 
         Country country = mapToEntity(dto);
 
-        return countryRepository.save(country);
+        Country savedCountry = countryRepository.save(country);
+        affinityMatrixService.refreshCountry(savedCountry.getId());
+        gradeConversionService.refreshCountry(savedCountry.getId());
+        refreshSimpleCountries();
+        datasetVersionService.bump();
+        return savedCountry;
     }
 
     private void updateCountryFromDto(Country country, CountryRegistrationDTO dto) {
@@ -84,31 +271,88 @@ public class CountryService {
         country.setGradingSystem(dto.gradingSystem());
         country.setCreditRatio(dto.creditRatio());
         country.setCountryCode(dto.countryCode());
+        updateParsedColumns(country);
     }
 
     public Country findCountryByIdAndUpdate(Long id, CountryRegistrationDTO dto) {
-        Country existingCountry = findById(id);
-
-        if (!existingCountry.getName().equalsIgnoreCase(dto.name()) &&
-                countryRepository.existsByNameIgnoreCase(dto.name())) {
-            throw new BadRequestException("Country with name '" + dto.name() + "' already exists");
-        }
+        Country savedCountry = new TransactionTemplate(transactionManager).execute(status -> {
+            Country country = findEntityById(id);
 
-        updateCountryFromDto(existingCountry, dto);
+            if (!country.getName().equalsIgnoreCase(dto.name()) &&
+                    countryRepository.existsByNameIgnoreCase(dto.name())) {
+                throw new BadRequestException("Country with name '" + dto.name() + "' already exists");
+            }
 
-        return countryRepository.save(existingCountry);
+            boolean yearsChanged = !country.getYearsCompulsorySchooling().equals(dto.yearsCompulsorySchooling());
+            updateCountryFromDto(country, dto);
+            // The representative program depends on the years of compulsory schooling: the pointer commits with them
+            if (yearsChanged) {
+                bachelorProgramService.refreshRepresentativeProgram(country);
+            }
+            return countryRepository.save(country);
+        });
+        countryCache.invalidate(id);
+        bachelorProgramService.evictCountry(id);
+        affinityMatrixService.refreshCountry(id);
+        gradeConversionService.refreshCountry(id);
+        refreshSimpleCountries();
+        datasetVersionService.bump();
+        return savedCountry;
     }
 
     public void deleteCountry(Long id) {
-        Country country = findById(id);
+        Country country = findEntityById(id);
         countryRepository.delete(country);
+        countryCache.invalidate(id);
+        bachelorProgramService.evictCountry(id);
+        affinityMatrixService.refreshCountry(id);
+        gradeConversionService.refreshCountry(id);
+        refreshSimpleCountries();
+        datasetVersionService.bump();
     }
 
     public List<CountryRespDTO> findAllCountriesSimple() {
+        return countryRepository.findAllSimple();
+    }
 
-        List<Country> countries = countryRepository.findAll(Sort.by("name"));
+    // Called once an import has committed: the caches are dropped and every derived view is rebuilt from the new data,
+    // then published in one swap each, so readers move from the old data set to the new one without waiting
+    public void refreshAfterImport() {
+        countryCache.invalidateAll();
+        bachelorProgramService.evictAll();
+        affinityMatrixService.rebuild();
+        gradeConversionService.rebuild();
+        refreshSimpleCountries();
+        datasetVersionService.bump();
+    }
 
-        return countries.stream()
-                .map(country -> new CountryRespDTO(country.getId(), country.getName(), country.getCountryCode()))
-                .toList();
-}}
+    public SimpleCountriesSnapshot getSimpleCountriesSnapshot() {
+        SimpleCountriesSnapshot snapshot = simpleSnapshot;
+        return snapshot != null ? snapshot : refreshSimpleCountries();
+    }
+
+    // Called by every country write and after an import
+    public synchronized SimpleCountriesSnapshot refreshSimpleCountries() {
+        SimpleCountriesSnapshot snapshot = SimpleCountriesSnapshot.of(objectMapper, findAllCountriesSimple());
+        simpleSnapshot = snapshot;
+        return snapshot;
+    }
+
+    public record SimpleCountriesSnapshot(byte[] json, byte[] gzip) {
+
+        static SimpleCountriesSnapshot of(ObjectMapper objectMapper, List<CountryRespDTO> countries) {
+            try {
+                byte[] json = objectMapper.writeValueAsBytes(countries);
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+                try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                    gzip.write(json);
+                }
+                return new SimpleCountriesSnapshot(json, compressed.toByteArray());
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialise the countries list", e);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not compress the countries list", e);
+            }
+        }
+    }
+}
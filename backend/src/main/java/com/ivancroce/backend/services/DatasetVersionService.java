@@ -0,0 +1,31 @@
+package com.ivancroce.backend.services;
+
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class DatasetVersionService {
+
+    // Seeded with the startup time so versions keep increasing across restarts (the Excel import may have changed the data)
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    public long current() {
+        return version.get();
+    }
+
+    // Called by every admin write, after the change is saved and the caches are evicted
+    public void bump() {
+        version.incrementAndGet();
+    }
+
+    // Strong ETag shared by every public read of the dataset
+    public String eTag() {
+        return "\"" + Long.toString(current(), 36) + "\"";
+    }
+
+    // Same version, for a differently encoded representation of the same resource
+    public String eTag(String variant) {
+        return "\"" + Long.toString(current(), 36) + "-" + variant + "\"";
+    }
+}
@@ -2,18 +2,39 @@ package com.ivancroce.backend.services;
 
 import com.ivancroce.backend.entities.BachelorProgram;
 import com.ivancroce.backend.entities.Country;
+import com.ivancroce.backend.entities.ImportRowState;
+import com.ivancroce.backend.entities.ImportState;
+import com.ivancroce.backend.payloads.ImportReportDTO;
 import com.ivancroce.backend.repositories.BachelorProgramRepository;
 import com.ivancroce.backend.repositories.CountryRepository;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import com.ivancroce.backend.repositories.ImportRowStateRepository;
+import com.ivancroce.backend.repositories.ImportStateRepository;
+import com.ivancroce.backend.tools.ImportProgress;
+import com.ivancroce.backend.tools.MatrixRow;
+import com.ivancroce.backend.tools.MatrixSheetReader;
+import com.ivancroce.backend.tools.RowParser;
+import com.ivancroce.backend.tools.StatementCounter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Service
 public class ExcelImportService {
@@ -23,219 +44,199 @@ public class ExcelImportService {
     @Autowired
     private BachelorProgramRepository bachelorProgramRepository;
 
+    @Autowired
+    private ImportStateRepository importStateRepository;
 
-    public void importCountriesFromExcel() throws Exception {
-        ClassPathResource resource = new ClassPathResource("data/matrix.xlsx");
+    @Autowired
+    private ImportRowStateRepository importRowStateRepository;
 
-        try(Workbook workbook = new XSSFWorkbook(resource.getInputStream())) {
-            Sheet sheet = workbook.getSheetAt(0);
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
-            for (int i = 2; i <= 32; i++) {
-                Row row = sheet.getRow(i);
-                if(row != null) {
-                    Country country = parseRowToCountry(row);
-                    if (country != null) {
-                        Country savedCountry = countryRepository.save(country);
-                        createBachelorPrograms(savedCountry, row);
-                        System.out.println("Saved: " + country.getName());
-                }
-            }
-        }
-    }}
+    @PersistenceContext
+    private EntityManager entityManager;
 
-    private Country parseRowToCountry(Row row) {
-        try {
-            // Column A = Country name
-            String name = getCellValueAsString(row.getCell(0));
-            if (name == null || name.isEmpty()) return null;
-
-            // Skip if already exists
-            if (countryRepository.existsByNameIgnoreCase(name)) {
-                System.out.println("Country " + name + " already exists, skipping");
-                return null;
-            }
-            // Parse all fields from Excel
-            Integer yearsSchooling = parseIntegerWithAsterisk(getCellValueAsString(row.getCell(1))); // "13*" -> 13
-            String gradingSystem = parseGradingSystem(row);
-            String creditRatio = getCellValueAsString(row.getCell(23));
-            String countryCode = getCellValueAsString(row.getCell(24));
-
-            if (name != null && yearsSchooling != null) {
-                return new Country(name, yearsSchooling,
-                        gradingSystem, creditRatio, countryCode);
-            }
-
-            if (creditRatio == null || creditRatio.trim().isEmpty()) {
-                creditRatio = "25/30 HOURS OF STUDENT WORK";
-            }
-        } catch (Exception e) {
-            System.err.println("Error parsing row " + (row.getRowNum() + 1) + ": " + e.getMessage());
-        }
-        return null;
-    }
+    // Same as hibernate.jdbc.batch_size: the persistence context is flushed (one JDBC batch per table) and cleared
+    // every this many countries, so memory stays flat on large sheets
+    private static final int FLUSH_EVERY = 50;
 
-    private Integer parseIntegerWithAsterisk(String value) {
-        if (value == null || value.trim().isEmpty()) return null;
+    // Key of the bundled workbook in import_state
+    public static final String SOURCE = "data/matrix.xlsx";
 
-        // Handle cases like "12|13*"
-        if (value.contains("|")) {
-            String[] parts = value.split("\\|");
-            // Take the second part (usually higher): "12|13*" -> "13*"
-            value = parts[parts.length - 1].trim();
-        }
+    // Rows buffered before each parallel parse, and the size below which a chunk is parsed on the caller thread
+    private static final int PARSE_CHUNK = 512;
+    private static final int PARALLEL_THRESHOLD = 64;
 
-        // Remove asterisks: "13*" -> "13"
-        String clean = value.replaceAll("\\*", "").trim();
+    public ImportReportDTO importCountriesFromExcel() throws Exception {
+        ClassPathResource resource = new ClassPathResource(SOURCE);
 
-        try {
-            if (clean.contains(".")) {
-                return (int) Math.ceil(Double.parseDouble(clean));
-            }
-            return Integer.parseInt(clean);
-        } catch (NumberFormatException e) {
-            System.err.println("Could not parse: " + value);
-            return null;
+        // The streaming reader needs a file: use the resource directly, or a temporary copy when it's inside the jar
+        if (resource.isFile()) {
+            return importCountriesFromExcel(resource.getFile().toPath(), SOURCE, new ImportProgress());
         }
-    }
-
-    private String getCellValueAsString(Cell cell) {
-        if (cell == null) return null;
-
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue().trim();
-            case NUMERIC:
-                return String.valueOf((int) cell.getNumericCellValue());
-            case BLANK:
-                return null;
-            default:
-                return cell.toString().trim();
+        Path copy = Files.createTempFile("matrix", ".xlsx");
+        try (InputStream in = resource.getInputStream()) {
+            Files.copy(in, copy, StandardCopyOption.REPLACE_EXISTING);
+            return importCountriesFromExcel(copy, SOURCE, new ImportProgress());
+        } finally {
+            Files.deleteIfExists(copy);
         }
     }
 
-    private Integer parseEqfLevel(Row row) {
-        Integer eqf = parseIntegerWithAsterisk(getCellValueAsString(row.getCell(17)));
-        return eqf != null ? eqf : 6; // Default fallback
-    }
-
-    private String parseOfficialDenomination(Row row) {
-        return getCellValueAsString(row.getCell(18));
-    }
-
-
-    private String extractGradeFromCell(String cellValue, boolean extractHigher) {
-        if (cellValue == null || cellValue.trim().isEmpty()) return null;
-
-        // Handle values with "|" separator first (like "1|3")
-        if (cellValue.contains("|")) {
-            String[] parts = cellValue.split("\\|");
-            // For extractHigher=false (column Q), take first part
-            // For extractHigher=true (column M), take last part
-            String selectedPart = extractHigher ? parts[parts.length - 1].trim() : parts[0].trim();
-            return extractGradeFromCell(selectedPart, extractHigher); // Recursive call with selected part
-        }
-
-        // Handle letter grades
-        if (cellValue.matches(".*[A-Z]+.*")) {
-            Pattern pattern = Pattern.compile("([A-Z]+)");
-            Matcher matcher = pattern.matcher(cellValue);
-            if (matcher.find()) {
-                return matcher.group(1);
-            }
+    // Incremental: nothing is parsed when the workbook's hash matches the last import from the same source (the
+    // bundled file and admin uploads are tracked separately). Otherwise, in one transaction, rows whose cell hash is
+    // unchanged are skipped, new countries are inserted in batches and changed ones are updated with their programs
+    // replaced; readers keep seeing the previous data until it commits. Rows are parsed in parallel, a chunk at a
+    // time, while persistence stays on this thread in sheet order; progress is updated as rows are parsed and written
+    public ImportReportDTO importCountriesFromExcel(Path workbook, String source, ImportProgress progress) throws Exception {
+        long start = System.nanoTime();
+        String contentHash = MatrixSheetReader.contentHash(workbook);
+        ImportState state = importStateRepository.findById(source).orElse(null);
+        if (state != null && state.getContentHash().equals(contentHash)) {
+            return ImportReportDTO.unchanged((System.nanoTime() - start) / 1_000_000);
         }
 
-        // Handle numeric values
-        if (cellValue.matches(".*\\d+.*")) {
-            List<Double> numbers = new ArrayList<>();
-            Pattern pattern = Pattern.compile("(\\d+(?:\\.\\d+)?)");
-            Matcher matcher = pattern.matcher(cellValue);
-
-            while (matcher.find()) {
-                numbers.add(Double.parseDouble(matcher.group(1)));
-            }
-
-            if (!numbers.isEmpty()) {
-                Double result;
-
-                if (numbers.size() == 1) {
-                    result = numbers.getFirst();
-                } else {
-                    double firstNum = numbers.getFirst();
-
-                    // German grading system (higher-lower like 6-1)
-                    if (firstNum <= 6 && firstNum >= 1) {
-                                result = extractHigher ?
-                                numbers.stream().min(Double::compare).orElse(firstNum) :
-                                numbers.stream().max(Double::compare).orElse(firstNum);
-                    }
-                    // Italian grading system (lower-higher like 18-30)
-                    else {
-                        result = extractHigher ?
-                                numbers.stream().max(Double::compare).orElse(firstNum) :
-                                numbers.stream().min(Double::compare).orElse(firstNum);
+        int[] counts = new int[7]; // rows read, rows unchanged, countries created, countries updated, programs written, rows written, rows skipped
+        int statements;
+        StatementCounter.start();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                Set<String> existingNames = new HashSet<>(countryRepository.findAllLowercaseNames());
+                Map<String, String> rowHashes = new HashMap<>();
+                importRowStateRepository.findAll().forEach(row -> rowHashes.put(row.getRowKey(), row.getRowHash()));
+                Set<String> seen = new HashSet<>();
+                List<MatrixRow> chunk = new ArrayList<>(PARSE_CHUNK);
+                Consumer<List<MatrixRow>> parseAndPersist = rows -> {
+                    List<RowParser.ParsedCountry> parsedRows = parseChunk(rows);
+                    progress.rowsParsed(rows.size());
+                    for (int i = 0; i < parsedRows.size(); i++) {
+                        RowParser.ParsedCountry parsed = parsedRows.get(i);
+                        if (parsed == null) {
+                            progress.error("Row " + rows.get(i).rowNumber() + ": could not be parsed");
+                            continue;
+                        }
+                        // Locale.ROOT so the key matches LOWER(name) in the database whatever the server locale is
+                        String key = parsed.name().toLowerCase(Locale.ROOT);
+                        if (!seen.add(key)) {
+                            String message = "Row " + parsed.rowNumber() + ": " + parsed.name() + " appears twice in the sheet, skipped";
+                            System.out.println(message);
+                            progress.error(message);
+                            counts[6]++;
+                            continue;
+                        }
+                        String previousHash = rowHashes.get(key);
+                        if (parsed.rowHash().equals(previousHash)) {
+                            counts[1]++;
+                            continue;
+                        }
+                        if (!existingNames.contains(key)) {
+                            Country country = toCountry(parsed);
+                            counts[4] += country.getBachelorPrograms().size();
+                            entityManager.persist(country); // cascades to the programs, which get their ids here
+                            BachelorProgramService.assignRepresentativeProgram(country, country.getBachelorPrograms());
+                            counts[2]++;
+                            progress.rowWritten();
+                        } else if (previousHash == null) {
+                            // Imported before rows were tracked (or created through the API): keep it as it is and
+                            // take this row as the baseline, later edits to it will be applied
+                            System.out.println("Country " + parsed.name() + " already exists, tracking its row from now on");
+                            counts[1]++;
+                        } else {
+                            counts[4] += updateCountry(parsed);
+                            counts[3]++;
+                            progress.rowWritten();
+                        }
+                        if (previousHash == null) {
+                            entityManager.persist(new ImportRowState(key, parsed.rowHash()));
+                        } else {
+                            importRowStateRepository.updateRowHash(key, parsed.rowHash());
+                        }
+                        if (++counts[5] % FLUSH_EVERY == 0) {
+                            entityManager.flush();
+                            entityManager.clear();
+                        }
                     }
+                    rows.clear();
+                };
+                try {
+                    counts[0] = MatrixSheetReader.read(workbook, ExcelImportService::isCountryRow, row -> {
+                        chunk.add(row);
+                        if (chunk.size() == PARSE_CHUNK) parseAndPersist.accept(chunk);
+                    }, row -> {
+                        counts[6]++;
+                        // A name without a readable years column is a broken country row; anything else is a note
+                        if (row.cell(0) != null && !row.cell(0).isEmpty()) {
+                            String message = "Row " + row.rowNumber() + ": " + row.cell(0) + " has no years of schooling in column B, skipped";
+                            System.out.println(message);
+                            progress.error(message);
+                        }
+                    });
+                } catch (Exception e) {
+                    throw new IllegalStateException("Could not import " + workbook.getFileName(), e);
                 }
-                return String.valueOf(result.intValue());
-            }
+                parseAndPersist.accept(chunk);
+                // Recorded with the rows: if the import rolls back, the next start tries again
+                entityManager.merge(new ImportState(source, contentHash, LocalDateTime.now()));
+            });
+        } finally {
+            statements = StatementCounter.stop();
         }
-
-        return null;
+        return new ImportReportDTO(false, counts[0], counts[6], counts[1], counts[2], counts[3], counts[4], statements,
+                (System.nanoTime() - start) / 1_000_000);
     }
 
-    private String parseGradingSystem(Row row) {
-        // Get values from specific columns
-        String columnM = getCellValueAsString(row.getCell(12)); // Column M - higher grades
-        String columnQ = getCellValueAsString(row.getCell(16)); // Column Q - lower grades
-
-        // Extract grades
-        String higherGrade = extractGradeFromCell(columnM, true);  // true = extract higher/better grade
-        String lowerGrade = extractGradeFromCell(columnQ, false);  // false = extract lower/worse grade
-
-        if (lowerGrade != null && higherGrade != null) {
-            return lowerGrade + "-" + higherGrade;
+    // Fork-join over the chunk (RowParser is stateless); results keep the row order, null for unreadable rows
+    private static List<RowParser.ParsedCountry> parseChunk(List<MatrixRow> rows) {
+        if (rows.size() < PARALLEL_THRESHOLD) {
+            return rows.stream().map(RowParser::parse).toList();
         }
-
-        return "N/A";
+        return rows.parallelStream().map(RowParser::parse).toList();
     }
 
-    private void createBachelorPrograms(Country country, Row row) {
-        for (int duration = 1; duration <= 5; duration++) {
-            int durationCol = duration + 1; // C=2, D=3, E=4, F=5, G=6
-            int creditsCol = duration + 6;  // H=7, I=8, J=9, K=10, L=11
-
-            String durationValue = getCellValueAsString(row.getCell(durationCol));
-
-            if (durationValue != null && !durationValue.trim().isEmpty()) {
-                boolean isSpecial = durationValue.contains("*");
-                Integer creditsPerYear = parseIntegerWithAsterisk(getCellValueAsString(row.getCell(creditsCol)));
-                String officialDenomination = parseOfficialDenomination(row);
-                Integer eqfLevel = parseEqfLevel(row);
-
-                if (creditsPerYear == null) creditsPerYear = 60; // Default fallback
+    // Data rows have a country name in column A and the years of schooling (a number, maybe "12|13*") in column B;
+    // the header rows above and the footnotes below don't
+    private static boolean isCountryRow(MatrixRow row) {
+        String name = row.cell(0);
+        String years = row.cell(1);
+        return name != null && !name.isEmpty() && years != null && !years.isEmpty() && Character.isDigit(years.charAt(0));
+    }
 
-                if ("Poland".equalsIgnoreCase(country.getName()) &&
-                        "3.5*".equals(durationValue) && duration == 4) {
-                    creditsPerYear = 60;
-                }
+    private static Country toCountry(RowParser.ParsedCountry parsed) {
+        Country country = new Country(parsed.name(), parsed.yearsCompulsorySchooling(), parsed.gradingSystem(),
+                parsed.creditRatio(), parsed.countryCode());
+        CountryService.updateParsedColumns(country);
+        addPrograms(country, parsed);
+        return country;
+    }
 
-                BachelorProgram program = new BachelorProgram(
-                        duration,
-                        isSpecial,
-                        creditsPerYear,
-                        eqfLevel,
-                        officialDenomination,
-                        country
-                );
-
-                if ("Poland".equalsIgnoreCase(country.getName()) &&
-                        "3.5*".equals(durationValue) && duration == 4) {
-                    program.setTotalCredits(210);
-                }
+    // The sheet row of an existing country changed: its fields are overwritten and its programs replaced.
+    // Returns the number of programs written
+    private int updateCountry(RowParser.ParsedCountry parsed) {
+        Country country = countryRepository.findByNameIgnoreCase(parsed.name())
+                .orElseThrow(() -> new IllegalStateException("Country " + parsed.name() + " disappeared during the import"));
+        country.setName(parsed.name());
+        country.setYearsCompulsorySchooling(parsed.yearsCompulsorySchooling());
+        country.setGradingSystem(parsed.gradingSystem());
+        country.setCreditRatio(parsed.creditRatio());
+        country.setCountryCode(parsed.countryCode());
+        CountryService.updateParsedColumns(country);
+
+        List<BachelorProgram> previous = new ArrayList<>(country.getBachelorPrograms());
+        country.getBachelorPrograms().clear();
+        previous.forEach(entityManager::remove);
+        addPrograms(country, parsed);
+        country.getBachelorPrograms().forEach(entityManager::persist);
+        BachelorProgramService.assignRepresentativeProgram(country, country.getBachelorPrograms());
+        System.out.println("Country " + parsed.name() + " changed in the sheet, updated");
+        return parsed.programs().size();
+    }
 
-                bachelorProgramRepository.save(program);
-                System.out.println("  - Created program: " + duration + " years, " + creditsPerYear + " credits");
-            }
+    private static void addPrograms(Country country, RowParser.ParsedCountry parsed) {
+        for (RowParser.ParsedProgram spec : parsed.programs()) {
+            BachelorProgram program = new BachelorProgram(spec.duration(), spec.isSpecialProgram(),
+                    spec.creditsPerYear(), spec.eqfLevel(), spec.officialDenomination(), country);
+            program.setTotalCredits(spec.totalCredits());
+            country.getBachelorPrograms().add(program);
         }
     }
 }
-
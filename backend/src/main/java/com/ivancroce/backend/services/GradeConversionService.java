@@ -0,0 +1,74 @@
+package com.ivancroce.backend.services;
+
+import com.ivancroce.backend.entities.Country;
+import com.ivancroce.backend.exceptions.BadRequestException;
+import com.ivancroce.backend.exceptions.NotFoundException;
+import com.ivancroce.backend.payloads.GradeConversionDTO;
+import com.ivancroce.backend.payloads.TranscriptConversionDTO;
+import com.ivancroce.backend.payloads.TranscriptConversionRequest;
+import com.ivancroce.backend.repositories.CountryRepository;
+import com.ivancroce.backend.tools.GradeScale;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class GradeConversionService {
+
+    @Autowired
+    private CountryRepository countryRepository;
+
+    // Country code -> compiled scale, replaced as a whole on every change
+    private volatile Map<String, GradeScale> scales = Map.of();
+
+    public synchronized void rebuild() {
+        Map<String, GradeScale> compiled = new HashMap<>();
+        for (Country country : countryRepository.findAll()) {
+            GradeScale scale = GradeScale.compile(country.getId(), country.getCountryCode(), country.getGradingSystem());
+            if (scale != null && scale.getCountryCode() != null) compiled.put(scale.getCountryCode(), scale);
+        }
+        scales = Map.copyOf(compiled);
+    }
+
+    // Called after a country is created, updated or deleted
+    public synchronized void refreshCountry(Long countryId) {
+        Map<String, GradeScale> compiled = new HashMap<>(scales);
+        compiled.values().removeIf(scale -> scale.getCountryId().equals(countryId));
+        countryRepository.findById(countryId)
+                .map(country -> GradeScale.compile(country.getId(), country.getCountryCode(), country.getGradingSystem()))
+                .filter(scale -> scale.getCountryCode() != null)
+                .ifPresent(scale -> compiled.put(scale.getCountryCode(), scale));
+        scales = Map.copyOf(compiled);
+    }
+
+    public GradeConversionDTO convert(String from, String to, String grade) {
+        GradeScale source = findScale(from);
+        GradeScale target = findScale(to);
+        return new GradeConversionDTO(source.getCountryCode(), target.getCountryCode(), grade,
+                target.gradeAt(source.position(grade)));
+    }
+
+    public TranscriptConversionDTO convertTranscript(TranscriptConversionRequest request) {
+        GradeScale source = findScale(request.from());
+        GradeScale target = findScale(request.to());
+
+        List<String> converted = new ArrayList<>(request.grades().size());
+        for (String grade : request.grades()) {
+            if (grade == null) throw new BadRequestException("Grades cannot be null");
+            converted.add(target.gradeAt(source.position(grade)));
+        }
+        return new TranscriptConversionDTO(source.getCountryCode(), target.getCountryCode(), request.grades(), converted);
+    }
+
+    private GradeScale findScale(String countryCode) {
+        GradeScale scale = scales.get(countryCode.trim().toUpperCase());
+        if (scale == null) {
+            throw new NotFoundException("No convertible grading system found for country code " + countryCode);
+        }
+        return scale;
+    }
+}
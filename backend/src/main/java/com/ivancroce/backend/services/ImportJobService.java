@@ -0,0 +1,168 @@
+package com.ivancroce.backend.services;
+
+import com.ivancroce.backend.enums.ImportJobStatus;
+import com.ivancroce.backend.exceptions.BadRequestException;
+import com.ivancroce.backend.exceptions.NotFoundException;
+import com.ivancroce.backend.exceptions.TooManyRequestsException;
+import com.ivancroce.backend.payloads.ImportJobDTO;
+import com.ivancroce.backend.payloads.ImportReportDTO;
+import com.ivancroce.backend.tools.ImportProgress;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Imports of uploaded workbooks run one at a time on a background thread. The upload is streamed to disk before the
+// job is queued; the import itself commits in one transaction and the in-memory views are republished afterwards
+// (CountryService.refreshAfterImport), so readers see either the old data set or the new one and are never blocked.
+@Service
+@Slf4j
+public class ImportJobService {
+
+    // Key of uploaded workbooks in import_state
+    private static final String UPLOAD_SOURCE = "upload";
+
+    // Finished jobs kept for the progress endpoint
+    private static final int MAX_FINISHED_JOBS = 20;
+
+    @Autowired
+    private ExcelImportService excelImportService;
+
+    @Autowired
+    private CountryService countryService;
+
+    @Value("${imports.upload-dir:${java.io.tmpdir}/eduatlas-imports}")
+    private Path uploadDir;
+
+    @Value("${imports.queue-capacity:2}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor importExecutor;
+
+    private final Map<UUID, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    private static final class ImportJob {
+        private final UUID id = UUID.randomUUID();
+        private final String fileName;
+        private final Path workbook;
+        private final ImportProgress progress = new ImportProgress();
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private volatile ImportJobStatus status = ImportJobStatus.QUEUED;
+        private volatile ImportReportDTO report;
+        private volatile LocalDateTime finishedAt;
+
+        private ImportJob(String fileName, Path workbook) {
+            this.fileName = fileName;
+            this.workbook = workbook;
+        }
+
+        private ImportJobDTO toDTO() {
+            return new ImportJobDTO(id, fileName, status, progress.rowsParsed(), progress.rowsWritten(),
+                    progress.errorCount(), progress.errors(), report, submittedAt, finishedAt);
+        }
+    }
+
+    @PostConstruct
+    public void startImportExecutor() throws IOException {
+        Files.createDirectories(uploadDir);
+        importExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("excel-import-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void stopImportExecutor() {
+        importExecutor.shutdownNow();
+    }
+
+    public ImportJobDTO submit(MultipartFile file) {
+        String fileName = file.getOriginalFilename();
+        if (file.isEmpty() || fileName == null || !fileName.toLowerCase(Locale.ROOT).endsWith(".xlsx")) {
+            throw new BadRequestException("Please upload a non-empty .xlsx workbook");
+        }
+
+        ImportJob job;
+        try {
+            Path workbook = Files.createTempFile(uploadDir, "matrix-", ".xlsx");
+            try (InputStream in = file.getInputStream()) {
+                Files.copy(in, workbook, StandardCopyOption.REPLACE_EXISTING);
+            }
+            job = new ImportJob(fileName, workbook);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store the uploaded workbook", e);
+        }
+
+        pruneFinishedJobs();
+        jobs.put(job.id, job);
+        try {
+            importExecutor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            deleteQuietly(job.workbook);
+            throw new TooManyRequestsException("Another import is already running, please try again later", 60);
+        }
+        return job.toDTO();
+    }
+
+    public ImportJobDTO findById(UUID jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) throw new NotFoundException(jobId);
+        return job.toDTO();
+    }
+
+    private void run(ImportJob job) {
+        job.status = ImportJobStatus.RUNNING;
+        try {
+            ImportReportDTO report = excelImportService.importCountriesFromExcel(job.workbook, UPLOAD_SOURCE, job.progress);
+            if (!report.workbookUnchanged()) {
+                countryService.refreshAfterImport();
+            }
+            job.report = report;
+            job.status = ImportJobStatus.COMPLETED;
+            log.info("Import {} of {} completed: {}", job.id, job.fileName, report);
+        } catch (Exception e) {
+            job.progress.error(e.getCause() != null ? e.getMessage() + ": " + e.getCause().getMessage() : e.getMessage());
+            job.status = ImportJobStatus.FAILED;
+            log.warn("Import {} of {} failed", job.id, job.fileName, e);
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            deleteQuietly(job.workbook);
+        }
+    }
+
+    private void pruneFinishedJobs() {
+        jobs.values().stream()
+                .filter(job -> job.finishedAt != null)
+                .sorted((a, b) -> b.finishedAt.compareTo(a.finishedAt))
+                .skip(MAX_FINISHED_JOBS)
+                .forEach(job -> jobs.remove(job.id));
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", file, e);
+        }
+    }
+}
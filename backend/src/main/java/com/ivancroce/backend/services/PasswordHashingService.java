@@ -0,0 +1,141 @@
+package com.ivancroce.backend.services;
+
+import com.ivancroce.backend.exceptions.TooManyRequestsException;
+import com.ivancroce.backend.payloads.PasswordHashingStatsDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.function.Supplier;
+
+// BCrypt runs on its own small pool so a burst of logins can't pin every Tomcat worker on hashing.
+// When the pool and its queue are full, callers get a 429 instead of waiting.
+@Service
+@Slf4j
+public class PasswordHashingService {
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Value("${security.password-hashing.pool-size:2}")
+    private int poolSize;
+
+    @Value("${security.password-hashing.queue-capacity:32}")
+    private int queueCapacity;
+
+    @Value("${security.bcrypt.strength:12}")
+    private int bcryptStrength;
+
+    private ThreadPoolExecutor hashingExecutor;
+
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong hashNanos = new AtomicLong();
+    private final AtomicLong hashCount = new AtomicLong();
+    private final LongAccumulator maxHashNanos = new LongAccumulator(Math::max, 0);
+
+    @PostConstruct
+    public void startHashingExecutor() {
+        hashingExecutor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("password-hashing-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void stopHashingExecutor() {
+        hashingExecutor.shutdownNow();
+    }
+
+    public String encode(String rawPassword) {
+        return await(submit(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return await(submit(() -> passwordEncoder.matches(rawPassword, encodedPassword)));
+    }
+
+    // Off the request path: used to re-hash after a successful login, skipped (and retried on the next login) when busy
+    public CompletableFuture<String> encodeInBackground(String rawPassword) {
+        try {
+            return submit(() -> passwordEncoder.encode(rawPassword));
+        } catch (TooManyRequestsException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // True when the hash was produced with a different cost than the one configured now
+    public boolean needsRehash(String encodedPassword) {
+        // BCrypt hashes look like $2a$12$...: the cost is the two digits after the second '$'
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') {
+            return false;
+        }
+        int costStart = encodedPassword.indexOf('$', 1) + 1;
+        if (costStart <= 0 || costStart + 2 > encodedPassword.length()) {
+            return false;
+        }
+        int cost = (encodedPassword.charAt(costStart) - '0') * 10 + (encodedPassword.charAt(costStart + 1) - '0');
+        return cost != bcryptStrength;
+    }
+
+    public PasswordHashingStatsDTO stats() {
+        long count = hashCount.get();
+        return new PasswordHashingStatsDTO(
+                poolSize,
+                hashingExecutor.getActiveCount(),
+                hashingExecutor.getQueue().size(),
+                queueCapacity,
+                hashingExecutor.getCompletedTaskCount(),
+                rejected.get(),
+                count == 0 ? 0 : hashNanos.get() / (double) count / 1_000_000,
+                maxHashNanos.get() / 1_000_000.0
+        );
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(() -> timed(task), hashingExecutor);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new TooManyRequestsException("Too many requests, please try again shortly", 1);
+        }
+    }
+
+    private <T> T timed(Supplier<T> task) {
+        long start = System.nanoTime();
+        try {
+            return task.get();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            hashNanos.addAndGet(elapsed);
+            hashCount.incrementAndGet();
+            maxHashNanos.accumulate(elapsed);
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing a password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
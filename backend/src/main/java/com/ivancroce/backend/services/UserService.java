@@ -4,10 +4,15 @@ import com.ivancroce.backend.entities.User;
 import com.ivancroce.backend.enums.Role;
 import com.ivancroce.backend.exceptions.BadRequestException;
 import com.ivancroce.backend.exceptions.NotFoundException;
+import com.ivancroce.backend.payloads.CursorPageDTO;
 import com.ivancroce.backend.payloads.UserRegistrationDTO;
 import com.ivancroce.backend.payloads.UserRespDTO;
+import com.ivancroce.backend.payloads.UserRow;
 import com.ivancroce.backend.payloads.UserUpdateDTO;
 import com.ivancroce.backend.repositories.UserRepository;
+import com.ivancroce.backend.security.TokenRevocationList;
+import com.ivancroce.backend.tools.KeysetCursor;
+import com.ivancroce.backend.tools.SortableFields;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -15,8 +20,8 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.UUID;
 
@@ -24,15 +29,20 @@ import java.util.UUID;
 @Slf4j
 public class UserService {
 
+    private static final SortableFields SORTABLE_FIELDS = SortableFields.of("id", "username", "email", "firstName", "lastName");
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
 
     public Page<User> findAllUsers(int page, int size, String sortBy) {
         if (size > 50) size = 50;
-        Pageable pageable = PageRequest.of(page, size, Sort.by(sortBy).ascending());
+        Pageable pageable = PageRequest.of(page, size, SORTABLE_FIELDS.ascending(sortBy));
         return userRepository.findAll(pageable);
     }
 
@@ -57,7 +67,7 @@ public class UserService {
             throw new BadRequestException("The username " + user.getUsername() + " is already in use!");
         });
 
-        String encodedPassword = passwordEncoder.encode(userDTO.password());
+        String encodedPassword = passwordHashingService.encode(userDTO.password());
         Role userRole = userDTO.role() != null ? userDTO.role() : Role.ADMIN;
         User admin = new User(userDTO.username(), userDTO.email(), encodedPassword,
                 userRole, userDTO.firstName(), userDTO.lastName());
@@ -74,7 +84,7 @@ public class UserService {
             throw new BadRequestException("The username " + userDTO.username() + " is already in use!");
         });
 
-        String encodedPassword = passwordEncoder.encode(userDTO.password());
+        String encodedPassword = passwordHashingService.encode(userDTO.password());
         Role userRole = userDTO.role() != null ? userDTO.role() : Role.USER;
         User newUser = new User(userDTO.username(), userDTO.email(), encodedPassword, userRole, userDTO.firstName(), userDTO.lastName());
 
@@ -84,6 +94,8 @@ public class UserService {
 
     public User findByIdAndUpdate(Long id, UserUpdateDTO userDTO) {
         User found = this.findById(id);
+        Role previousRole = found.getRole();
+        String previousEmail = found.getEmail();
 
         if (userRepository.existsByUsernameAndIdNot(userDTO.username(), id)) {
             throw new BadRequestException("Username '" + userDTO.username() + "' is already in use!");
@@ -100,8 +112,9 @@ public class UserService {
             throw new BadRequestException("Email '" + userDTO.email() + "' is already in use!");
         }
 
-        if (userDTO.password() != null && !userDTO.password().trim().isEmpty()) {
-            found.setPassword(passwordEncoder.encode(userDTO.password()));
+        boolean passwordChanged = userDTO.password() != null && !userDTO.password().trim().isEmpty();
+        if (passwordChanged) {
+            found.setPassword(passwordHashingService.encode(userDTO.password()));
         }
 
         if (userDTO.avatarUrl() != null && !userDTO.avatarUrl().isBlank()) {
@@ -111,16 +124,47 @@ public class UserService {
                     userDTO.firstName() + "+" + userDTO.lastName());
         }
 
-        return userRepository.save(found);
+        User saved = userRepository.save(found);
+        // Tokens carry role and email: outstanding ones must not outlive a change to either (or to the password)
+        if (passwordChanged || saved.getRole() != previousRole || !saved.getEmail().equals(previousEmail)) {
+            tokenRevocationList.revoke(id);
+        }
+        return saved;
+    }
+
+    // Re-hash on login: only the password column changes, so outstanding tokens stay valid. Conditional on the hash
+    // the login checked, so a password changed while the re-hash ran isn't overwritten; false when it was skipped
+    public boolean updatePasswordHash(Long id, String previousHash, String encodedPassword) {
+        return userRepository.updatePasswordIfUnchanged(id, previousHash, encodedPassword) == 1;
     }
 
     public void findByIdAndDelete(Long id) {
         User found = this.findById(id);
         userRepository.delete(found);
+        tokenRevocationList.revoke(id);
     }
 
-    public Page<User> searchUsers(String role, String search, int page, int size, String sortBy, String direction) {
+    // Read-only projection: no entities, no snapshots, no flush
+    @Transactional(readOnly = true)
+    public Page<UserRow> searchUsers(String role, String search, int page, int size, String sortBy, String direction) {
         if (size > 50) size = 50;
+        Specification<User> specification = searchSpecification(role, search);
+
+        Pageable pageable = PageRequest.of(page, size, SORTABLE_FIELDS.sort(sortBy, direction));
+
+        return userRepository.findRows(specification, pageable);
+    }
+
+    // Same filters, keyset pages: "after" is the nextCursor of the previous page (empty for the first one)
+    @Transactional(readOnly = true)
+    public CursorPageDTO<UserRow> scrollUsers(String role, String search, String after, int size, String sortBy, String direction) {
+        if (size > 50) size = 50;
+        Sort sort = SORTABLE_FIELDS.sort(sortBy, direction);
+
+        return KeysetCursor.page(userRepository.scrollRows(searchSpecification(role, search), sort, size, KeysetCursor.decode(after, sort, User.class)), sort);
+    }
+
+    private static Specification<User> searchSpecification(String role, String search) {
         Specification<User> roleSpec = (root, query, builder) -> {
             if (role == null || role.isEmpty()) {
                 return null;
@@ -141,17 +185,8 @@ public class UserService {
             );
         };
 
-        Specification<User> specification = Specification.<User>unrestricted()
+        return Specification.<User>unrestricted()
                 .and(roleSpec)
                 .and(searchSpec);
-
-        Sort sort = direction.equalsIgnoreCase("desc") ?
-                Sort.by(sortBy).descending() :
-                Sort.by(sortBy).ascending();
-        Pageable pageable = PageRequest.of(page, size, sort);
-
-        Page<User> result = userRepository.findAll(specification, pageable);
-
-        return result;
     }
 }
@@ -0,0 +1,223 @@
+package com.ivancroce.backend.tools;
+
+import com.ivancroce.backend.enums.AffinityCategory;
+import com.ivancroce.backend.enums.AffinityLevel;
+import com.ivancroce.backend.payloads.AffinityCategoryDTO;
+import com.ivancroce.backend.payloads.AffinityCountryDTO;
+import com.ivancroce.backend.payloads.AffinityRespDTO;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType0Font;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Renders the affinity report as a vector A4 PDF (text and lines only, no images)
+@Component
+public class AffinityReportPdfRenderer {
+
+    private static final float MARGIN = 50;
+    private static final float[] COLUMN_WIDTHS = {135, 125, 125, 110};
+    private static final float FONT_SIZE = 9;
+    private static final float LINE_HEIGHT = 11;
+    private static final float CELL_PADDING = 5;
+
+    private static final String DISCLAIMER = "Credit and grade conversions are based on official sources and publicly available data; " +
+            "however, such information may have been updated, revised, or modified by the relevant authorities since the time of publication. " +
+            "EduAtlas is a free service offered to users worldwide.";
+
+    // DejaVu Sans covers the Cyrillic and Greek degree names in the dataset, the standard PDF fonts don't
+    private final byte[] regularFont = readFont("fonts/DejaVuSans.ttf");
+    private final byte[] boldFont = readFont("fonts/DejaVuSans-Bold.ttf");
+
+    public byte[] render(AffinityRespDTO report) {
+        AffinityCountryDTO a = report.countryA();
+        AffinityCountryDTO b = report.countryB();
+
+        try (PDDocument document = new PDDocument()) {
+            PDFont regular = PDType0Font.load(document, new ByteArrayInputStream(regularFont));
+            PDFont bold = PDType0Font.load(document, new ByteArrayInputStream(boldFont));
+            PDPage page = new PDPage(PDRectangle.A4);
+            document.addPage(page);
+
+            try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                float y = page.getMediaBox().getHeight() - MARGIN;
+
+                writeText(content, bold, 18, MARGIN, y, "Bachelor's Degree Affinity Report");
+                y -= 24;
+                writeText(content, regular, 13, MARGIN, y, a.name() + " vs " + b.name());
+                y -= 30;
+
+                y = drawRow(content, bold, y, new String[]{"CATEGORY", a.name().toUpperCase(), b.name().toUpperCase(), "AFFINITY"}, null, true);
+                y = drawRow(content, regular, y, new String[]{"STANDARD DURATION",
+                        formatDuration(a) + " YEARS", formatDuration(b) + " YEARS", null}, levelOf(report, AffinityCategory.DURATION), false);
+                y = drawRow(content, regular, y, new String[]{"OVERALL CREDITS",
+                        a.program().totalCredits() + " ECTS", b.program().totalCredits() + " ECTS", null}, levelOf(report, AffinityCategory.CREDITS), false);
+                y = drawRow(content, regular, y, new String[]{"CREDIT RATIO (1 ECTS)",
+                        a.creditRatio() + " HOURS OF STUDENT WORK", b.creditRatio() + " HOURS OF STUDENT WORK", null}, levelOf(report, AffinityCategory.CREDIT_RATIO), false);
+                y = drawRow(content, regular, y, new String[]{"EQF/OFQUAL/US",
+                        String.valueOf(a.program().eqfLevel()), String.valueOf(b.program().eqfLevel()), null}, levelOf(report, AffinityCategory.EQF), false);
+                y = drawRow(content, regular, y, new String[]{"GRADING SYSTEM",
+                        a.gradingSystem(), b.gradingSystem(), null}, levelOf(report, AffinityCategory.GRADING), false);
+                y = drawRow(content, regular, y, new String[]{"DEGREE'S OFFICIAL NAME",
+                        a.program().officialDenomination(), b.program().officialDenomination(), ""}, null, false);
+
+                y -= 30;
+                writeText(content, bold, 14, MARGIN, y, "Overall affinity: " + report.percentage() + "% (" + report.overall().getLabel() + ")");
+                y -= 30;
+
+                for (String line : wrap(DISCLAIMER, regular, 8, sum(COLUMN_WIDTHS))) {
+                    writeText(content, regular, 8, MARGIN, y, line);
+                    y -= 10;
+                }
+                writeText(content, regular, 8, MARGIN, MARGIN / 2, "EduAtlas Affinity Report");
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            document.save(out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not render affinity report", e);
+        }
+    }
+
+    // Draws one table row (the last column shows the affinity level when one is given) and returns the y below it
+    private float drawRow(PDPageContentStream content, PDFont font, float top, String[] cells, AffinityLevel level,
+                          boolean header) throws IOException {
+        if (level != null) cells[cells.length - 1] = level.getLabel();
+
+        List<List<String>> lines = new ArrayList<>();
+        int maxLines = 1;
+        for (int i = 0; i < cells.length; i++) {
+            List<String> cellLines = wrap(cells[i] == null ? "" : cells[i], font, FONT_SIZE, COLUMN_WIDTHS[i] - 2 * CELL_PADDING);
+            lines.add(cellLines);
+            maxLines = Math.max(maxLines, cellLines.size());
+        }
+        float height = maxLines * LINE_HEIGHT + 2 * CELL_PADDING;
+        float bottom = top - height;
+
+        if (header) {
+            content.setNonStrokingColor(0.9f, 0.9f, 0.9f);
+            content.addRect(MARGIN, bottom, sum(COLUMN_WIDTHS), height);
+            content.fill();
+        }
+
+        float x = MARGIN;
+        for (int i = 0; i < cells.length; i++) {
+            boolean isLevel = level != null && i == cells.length - 1;
+            setTextColor(content, isLevel ? level : null);
+            float lineY = top - CELL_PADDING - FONT_SIZE;
+            for (String line : lines.get(i)) {
+                writeText(content, font, FONT_SIZE, x + CELL_PADDING, lineY, line);
+                lineY -= LINE_HEIGHT;
+            }
+            x += COLUMN_WIDTHS[i];
+        }
+        setTextColor(content, null);
+
+        content.setStrokingColor(0.75f, 0.75f, 0.75f);
+        content.addRect(MARGIN, bottom, sum(COLUMN_WIDTHS), height);
+        x = MARGIN;
+        for (int i = 0; i < cells.length - 1; i++) {
+            x += COLUMN_WIDTHS[i];
+            content.moveTo(x, bottom);
+            content.lineTo(x, top);
+        }
+        content.stroke();
+        return bottom;
+    }
+
+    // Same colors as the report page badges (success / warning / danger)
+    private void setTextColor(PDPageContentStream content, AffinityLevel level) throws IOException {
+        if (level == AffinityLevel.EQUIVALENT) content.setNonStrokingColor(0.1f, 0.53f, 0.33f);
+        else if (level == AffinityLevel.LOW) content.setNonStrokingColor(0.86f, 0.21f, 0.27f);
+        else if (level != null) content.setNonStrokingColor(0.8f, 0.55f, 0f);
+        else content.setNonStrokingColor(0f, 0f, 0f);
+    }
+
+    private void writeText(PDPageContentStream content, PDFont font, float size, float x, float y, String text) throws IOException {
+        content.beginText();
+        content.setFont(font, size);
+        content.newLineAtOffset(x, y);
+        content.showText(text);
+        content.endText();
+    }
+
+    private List<String> wrap(String text, PDFont font, float size, float width) throws IOException {
+        List<String> lines = new ArrayList<>();
+        StringBuilder line = new StringBuilder();
+        for (String word : text.split("\\s+")) {
+            for (String piece : splitLongWord(word, font, size, width)) {
+                String candidate = line.isEmpty() ? piece : line + " " + piece;
+                if (!line.isEmpty() && textWidth(candidate, font, size) > width) {
+                    lines.add(line.toString());
+                    line = new StringBuilder(piece);
+                } else {
+                    line = new StringBuilder(candidate);
+                }
+            }
+        }
+        lines.add(line.toString());
+        return lines;
+    }
+
+    // Breaks a word wider than the column, preferably right after a '/' or '-' (e.g. "Bakalár/Bakalársky")
+    private List<String> splitLongWord(String word, PDFont font, float size, float width) throws IOException {
+        List<String> pieces = new ArrayList<>();
+        String rest = word;
+        while (textWidth(rest, font, size) > width) {
+            int end = 1;
+            while (end < rest.length() && textWidth(rest.substring(0, end + 1), font, size) <= width) end++;
+            int breakAt = Math.max(rest.lastIndexOf('/', end - 1), rest.lastIndexOf('-', end - 1)) + 1;
+            if (breakAt > 0) end = breakAt;
+            pieces.add(rest.substring(0, end));
+            rest = rest.substring(end);
+        }
+        pieces.add(rest);
+        return pieces;
+    }
+
+    private float textWidth(String text, PDFont font, float size) throws IOException {
+        return font.getStringWidth(text) / 1000 * size;
+    }
+
+    // For Poland having 3.5 Duration BA (same rule as the report page)
+    private String formatDuration(AffinityCountryDTO country) {
+        if ("Poland".equals(country.name()) && country.program().duration() == 4 && country.program().isSpecialProgram()) {
+            return "3.5";
+        }
+        return String.valueOf(country.program().duration());
+    }
+
+    private AffinityLevel levelOf(AffinityRespDTO report, AffinityCategory category) {
+        return report.categories().stream()
+                .filter(c -> c.category() == category)
+                .map(AffinityCategoryDTO::level)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static float sum(float[] values) {
+        float total = 0;
+        for (float value : values) total += value;
+        return total;
+    }
+
+    private static byte[] readFont(String path) {
+        try (InputStream in = new ClassPathResource(path).getInputStream()) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load font " + path, e);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.ivancroce.backend.tools;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+// Small LRU cache bounded by the total weight of its values (entry count when every value weighs 1)
+public class BoundedCache<K, V> {
+
+    private final long maxWeight;
+    private final ToLongFunction<V> weigher;
+    private final LinkedHashMap<K, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+    // Bumped by every invalidation; getOrLoad only stores what it loaded if no invalidation happened meanwhile
+    private long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public BoundedCache(long maxWeight, ToLongFunction<V> weigher) {
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    public BoundedCache(long maxEntries) {
+        this(maxEntries, value -> 1);
+    }
+
+    public synchronized V get(K key) {
+        V value = entries.get(key);
+        if (value != null) hits.incrementAndGet();
+        else misses.incrementAndGet();
+        return value;
+    }
+
+    // Read-through: the loader runs outside the lock, and its value is dropped instead of cached when an
+    // invalidation landed while it ran (it may have read the rows that invalidation was about)
+    public V getOrLoad(K key, Function<K, V> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            V value = get(key);
+            if (value != null) return value;
+            loadGeneration = generation;
+        }
+        V loaded = loader.apply(key);
+        synchronized (this) {
+            if (generation == loadGeneration) put(key, loaded);
+        }
+        return loaded;
+    }
+
+    public synchronized void put(K key, V value) {
+        long valueWeight = weigher.applyAsLong(value);
+        if (valueWeight > maxWeight) return;
+
+        V previous = entries.put(key, value);
+        if (previous != null) weight -= weigher.applyAsLong(previous);
+        weight += valueWeight;
+
+        Iterator<V> eldest = entries.values().iterator();
+        while (weight > maxWeight && eldest.hasNext()) {
+            weight -= weigher.applyAsLong(eldest.next());
+            eldest.remove();
+        }
+    }
+
+    public synchronized void invalidate(K key) {
+        generation++;
+        V removed = entries.remove(key);
+        if (removed != null) weight -= weigher.applyAsLong(removed);
+    }
+
+    public synchronized void invalidateIf(Predicate<K> condition) {
+        generation++;
+        Iterator<Map.Entry<K, V>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<K, V> entry = iterator.next();
+            if (condition.test(entry.getKey())) {
+                weight -= weigher.applyAsLong(entry.getValue());
+                iterator.remove();
+            }
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+        weight = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long weight() {
+        return weight;
+    }
+
+    public long hitCount() {
+        return hits.get();
+    }
+
+    public long missCount() {
+        return misses.get();
+    }
+}
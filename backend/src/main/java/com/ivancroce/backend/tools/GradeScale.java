@@ -0,0 +1,115 @@
+package com.ivancroce.backend.tools;
+
+import com.ivancroce.backend.exceptions.BadRequestException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Immutable, precompiled form of Country.gradingSystem ("worst-best", e.g. 18-30, 6-1, F-A).
+// A grade is converted through its position on the scale: 0.0 is the worst grade, 1.0 the best one.
+public final class GradeScale {
+
+    private final Long countryId;
+    private final String countryCode;
+    private final double worst;
+    private final double best;
+    // Letter scales only: letters from worst to best and their index
+    private final String[] letters;
+    private final Map<String, Integer> letterIndex;
+
+    private GradeScale(Long countryId, String countryCode, double worst, double best, String[] letters) {
+        this.countryId = countryId;
+        this.countryCode = countryCode;
+        this.worst = worst;
+        this.best = best;
+        this.letters = letters;
+        Map<String, Integer> index = new HashMap<>();
+        if (letters != null) {
+            for (int i = 0; i < letters.length; i++) index.put(letters[i], i);
+        }
+        this.letterIndex = Map.copyOf(index);
+    }
+
+    // Returns null when the grading system can't be converted (e.g. "N/A")
+    public static GradeScale compile(Long countryId, String countryCode, String gradingSystem) {
+        if (gradingSystem == null) return null;
+        int separator = gradingSystem.indexOf('-');
+        if (separator <= 0 || separator == gradingSystem.length() - 1) return null;
+
+        String worst = gradingSystem.substring(0, separator).trim().toUpperCase();
+        String best = gradingSystem.substring(separator + 1).trim().toUpperCase();
+        String code = countryCode != null ? countryCode.toUpperCase() : null;
+
+        try {
+            double worstValue = Double.parseDouble(worst);
+            double bestValue = Double.parseDouble(best);
+            if (!Double.isFinite(worstValue) || !Double.isFinite(bestValue)) return null;
+            return worstValue == bestValue ? null : new GradeScale(countryId, code, worstValue, bestValue, null);
+        } catch (NumberFormatException e) {
+            // Letter scale
+        }
+
+        String[] letters;
+        if (worst.length() == 1 && best.length() == 1 && Character.isLetter(worst.charAt(0)) && Character.isLetter(best.charAt(0))) {
+            // Single letters: every letter in between, e.g. F-A -> F, E, D, C, B, A
+            int step = worst.charAt(0) > best.charAt(0) ? -1 : 1;
+            letters = new String[Math.abs(best.charAt(0) - worst.charAt(0)) + 1];
+            for (int i = 0; i < letters.length; i++) letters[i] = String.valueOf((char) (worst.charAt(0) + i * step));
+        } else {
+            // Named grades (e.g. U-VG): only the two ends are known
+            letters = new String[]{worst, best};
+        }
+        return letters.length < 2 ? null : new GradeScale(countryId, code, 0, 1, letters);
+    }
+
+    public Long getCountryId() {
+        return countryId;
+    }
+
+    public String getCountryCode() {
+        return countryCode;
+    }
+
+    public double getWorst() {
+        return worst;
+    }
+
+    public double getBest() {
+        return best;
+    }
+
+    public boolean isLetterScale() {
+        return letters != null;
+    }
+
+    public double position(String grade) {
+        if (letters != null) {
+            Integer index = letterIndex.get(grade.trim().toUpperCase());
+            if (index == null) throw new BadRequestException("Grade '" + grade + "' is not part of the " + countryCode + " grading system");
+            return (double) index / (letters.length - 1);
+        }
+
+        double value;
+        try {
+            value = Double.parseDouble(grade.trim());
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Grade '" + grade + "' is not a number");
+        }
+        // "NaN" and "Infinity" parse, but would slip past the range check below
+        if (!Double.isFinite(value)) {
+            throw new BadRequestException("Grade '" + grade + "' is not a number");
+        }
+        if (value < Math.min(worst, best) || value > Math.max(worst, best)) {
+            throw new BadRequestException("Grade " + grade + " is outside the " + countryCode + " grading system");
+        }
+        return (value - worst) / (best - worst);
+    }
+
+    public String gradeAt(double position) {
+        if (letters != null) {
+            return letters[(int) Math.round(position * (letters.length - 1))];
+        }
+        double value = Math.round((worst + position * (best - worst)) * 10) / 10.0;
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(value);
+    }
+}
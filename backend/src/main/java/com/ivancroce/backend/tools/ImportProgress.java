@@ -0,0 +1,45 @@
+package com.ivancroce.backend.tools;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Live counters of one import: written by the thread running it, read at any time by the progress endpoint
+public class ImportProgress {
+
+    // Only the first errors are kept, the rest are counted
+    private static final int MAX_ERRORS = 100;
+
+    private final AtomicInteger rowsParsed = new AtomicInteger();
+    private final AtomicInteger rowsWritten = new AtomicInteger();
+    private final AtomicInteger errorCount = new AtomicInteger();
+    private final List<String> errors = new CopyOnWriteArrayList<>();
+
+    public void rowsParsed(int count) {
+        rowsParsed.addAndGet(count);
+    }
+
+    public void rowWritten() {
+        rowsWritten.incrementAndGet();
+    }
+
+    public void error(String message) {
+        if (errorCount.incrementAndGet() <= MAX_ERRORS) errors.add(message);
+    }
+
+    public int rowsParsed() {
+        return rowsParsed.get();
+    }
+
+    public int rowsWritten() {
+        return rowsWritten.get();
+    }
+
+    public int errorCount() {
+        return errorCount.get();
+    }
+
+    public List<String> errors() {
+        return List.copyOf(errors);
+    }
+}
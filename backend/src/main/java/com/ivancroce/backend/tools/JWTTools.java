@@ -2,12 +2,27 @@ package com.ivancroce.backend.tools;
 
 import com.ivancroce.backend.entities.User;
 import com.ivancroce.backend.exceptions.UnauthorizedException;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Component
 public class JWTTools {
@@ -15,28 +30,123 @@ public class JWTTools {
     @Value("${jwt.secret}")
     private String secret;
 
+    // Verify-only secrets kept during a key rotation, so tokens signed with them stay valid until they expire
+    @Value("${jwt.previous-secrets:}")
+    private String[] previousSecrets;
+
     @Value("${jwt.expiration}")
     private long expiration;
 
+    @Value("${jwt.verified-cache-size:1024}")
+    private long verifiedCacheSize;
+
+    // Built once: the signing key, every accepted key by id, and a parser that picks the key from the token header
+    private SecretKey signingKey;
+    private String signingKeyId;
+    private Map<String, SecretKey> verificationKeys;
+    private JwtParser parser;
+
+    // SHA-256 of recently verified tokens → their claims, valid until the token expires
+    private BoundedCache<String, VerifiedToken> verifiedTokens;
+    private final AtomicLong verifications = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    private record VerifiedToken(Claims claims, long expiresAtMillis) {}
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        signingKeyId = keyId(secret);
+        Map<String, SecretKey> keys = new HashMap<>();
+        keys.put(signingKeyId, signingKey);
+        for (String previous : previousSecrets) {
+            if (!previous.isBlank()) {
+                keys.put(keyId(previous), Keys.hmacShaKeyFor(previous.getBytes()));
+            }
+        }
+        verificationKeys = Map.copyOf(keys);
+        parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        // Tokens issued before key ids were added have no kid: they were signed with the current secret
+                        String kid = header.getKeyId();
+                        return kid == null ? signingKey : verificationKeys.getOrDefault(kid, signingKey);
+                    }
+                })
+                .build();
+        verifiedTokens = new BoundedCache<>(verifiedCacheSize);
+    }
+
     public String createToken(User user) {
         return Jwts.builder()
+                .header().keyId(signingKeyId).and()
                 .subject(String.valueOf(user.getId()))
                 .claim("role", user.getRole().name())
+                .claim("email", user.getEmail())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(Keys.hmacShaKeyFor(secret.getBytes()))
+                .signWith(signingKey)
                 .compact();
     }
-    public void verifyToken(String accessToken) {
+
+    // Verifies the signature once and returns the claims; repeat calls with the same token are served from the cache
+    public Claims verifyToken(String accessToken) {
+        String digest = digest(accessToken);
+        VerifiedToken cached = verifiedTokens.get(digest);
+        if (cached != null) {
+            if (cached.expiresAtMillis() > System.currentTimeMillis()) {
+                return cached.claims();
+            }
+            verifiedTokens.invalidate(digest);
+            failures.incrementAndGet();
+            throw new UnauthorizedException("Unauthorized - try again");
+        }
+
+        verifications.incrementAndGet();
+        Claims claims;
         try {
-            Jwts.parser().verifyWith(Keys.hmacShaKeyFor(secret.getBytes())).build().parse(accessToken);
+            claims = parser.parseSignedClaims(accessToken).getPayload();
         } catch (Exception ex) {
+            failures.incrementAndGet();
             throw new UnauthorizedException("Unauthorized - try again");
         }
+        long expiresAt = claims.getExpiration() != null ? claims.getExpiration().getTime() : System.currentTimeMillis() + expiration;
+        verifiedTokens.put(digest, new VerifiedToken(claims, expiresAt));
+        return claims;
+    }
 
+    public long verificationCount() {
+        return verifications.get();
     }
 
-    public String extractId(String accessToken) {
-        return Jwts.parser().verifyWith(Keys.hmacShaKeyFor(secret.getBytes())).build().parseSignedClaims(accessToken).getPayload().getSubject();
+    public long cacheHitCount() {
+        return verifiedTokens.hitCount();
+    }
+
+    public long failureCount() {
+        return failures.get();
+    }
+
+    public int cachedTokenCount() {
+        return verifiedTokens.size();
+    }
+
+    private static String digest(String value) {
+        return Base64.getEncoder().withoutPadding().encodeToString(sha256(value));
+    }
+
+    // Short, stable id of a secret, written as the token's kid header
+    private static String keyId(String secret) {
+        byte[] hash = sha256(secret);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 6));
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
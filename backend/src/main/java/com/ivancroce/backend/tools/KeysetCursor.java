@@ -0,0 +1,112 @@
+package com.ivancroce.backend.tools;
+
+import com.ivancroce.backend.exceptions.BadRequestException;
+import com.ivancroce.backend.payloads.CursorPageDTO;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+// Opaque "after" cursor of the keyset listings: the sort it was issued for plus the sort key and id of the last row
+// returned (Base64url of a small binary record). Spring Data turns it into a seek predicate,
+// (key > ? OR key = ? AND id > ?) ORDER BY key, id LIMIT size + 1, so every page costs an index seek and no count.
+// The client can forge it, so decoding checks the keys are exactly the sort properties plus id, each holding the
+// type of the entity field it names; anything else is a 400 rather than a failure while building the predicate.
+public final class KeysetCursor {
+
+    private static final byte LONG = 'L';
+    private static final byte INTEGER = 'I';
+    private static final byte DOUBLE = 'D';
+    private static final byte BOOLEAN = 'B';
+    private static final byte STRING = 'S';
+
+    private KeysetCursor() {
+    }
+
+    // An empty or missing cursor starts from the first row
+    public static ScrollPosition decode(String after, Sort sort, Class<?> entityType) {
+        if (after == null || after.isBlank()) return ScrollPosition.keyset();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(after)))) {
+            String cursorSort = in.readUTF();
+            if (!cursorSort.equals(sort.toString())) {
+                throw new BadRequestException("The cursor was issued for a different sort");
+            }
+            int count = in.readUnsignedByte();
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                keys.put(name, switch (in.readByte()) {
+                    case LONG -> in.readLong();
+                    case INTEGER -> in.readInt();
+                    case DOUBLE -> in.readDouble();
+                    case BOOLEAN -> in.readBoolean();
+                    case STRING -> in.readUTF();
+                    default -> throw new BadRequestException("Invalid cursor");
+                });
+            }
+            checkKeys(keys, sort, entityType);
+            return ScrollPosition.forward(keys);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    private static void checkKeys(Map<String, Object> keys, Sort sort, Class<?> entityType) {
+        Set<String> expected = new HashSet<>();
+        sort.forEach(order -> expected.add(order.getProperty()));
+        expected.add("id");
+        if (!keys.keySet().equals(expected)) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        for (Map.Entry<String, Object> key : keys.entrySet()) {
+            Field field = ReflectionUtils.findField(entityType, key.getKey());
+            if (field == null || !ClassUtils.resolvePrimitiveIfNecessary(field.getType()).isInstance(key.getValue())) {
+                throw new BadRequestException("Invalid cursor");
+            }
+        }
+    }
+
+    public static String encode(KeysetScrollPosition position, Sort sort) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(sort.toString());
+            out.writeByte(position.getKeys().size());
+            for (Map.Entry<String, Object> key : position.getKeys().entrySet()) {
+                out.writeUTF(key.getKey());
+                switch (key.getValue()) {
+                    case Long value -> { out.writeByte(LONG); out.writeLong(value); }
+                    case Integer value -> { out.writeByte(INTEGER); out.writeInt(value); }
+                    case Double value -> { out.writeByte(DOUBLE); out.writeDouble(value); }
+                    case Boolean value -> { out.writeByte(BOOLEAN); out.writeBoolean(value); }
+                    case String value -> { out.writeByte(STRING); out.writeUTF(value); }
+                    default -> throw new IllegalStateException("Unsupported keyset value " + key.getValue());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    public static <T> CursorPageDTO<T> page(Window<T> window, Sort sort) {
+        String next = window.hasNext() && !window.isEmpty()
+                ? encode((KeysetScrollPosition) window.positionAt(window.size() - 1), sort)
+                : null;
+        return new CursorPageDTO<>(window.getContent(), window.size(), next);
+    }
+}
@@ -0,0 +1,36 @@
+package com.ivancroce.backend.tools;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+// One worksheet row as cell strings: text is trimmed, numbers are truncated to int (as the importer always read them),
+// blank or missing cells are null
+public record MatrixRow(int rowNumber, String[] cells) {
+
+    public String cell(int column) {
+        return column < cells.length ? cells[column] : null;
+    }
+
+    // SHA-256 (hex) of the cell values, to tell whether the row changed since the last import. Trailing blank cells
+    // don't count, so the hash doesn't depend on how far the sheet's used range extends
+    public String contentHash() {
+        int last = cells.length;
+        while (last > 0 && cells[last - 1] == null) last--;
+        MessageDigest digest = sha256();
+        for (int i = 0; i < last; i++) {
+            if (cells[i] != null) digest.update(cells[i].getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) (cells[i] == null ? 0 : 0x1F)); // separator, different for blank and empty
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e); // Required on every JVM
+        }
+    }
+}
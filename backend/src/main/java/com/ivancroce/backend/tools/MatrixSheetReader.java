@@ -0,0 +1,182 @@
+package com.ivancroce.backend.tools;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+// Streams the first worksheet of an .xlsx with POI's event API (XSSFReader + SAX): rows are handed to the consumer
+// one at a time and never kept, so memory doesn't grow with the sheet (only the shared strings table is loaded).
+// The data range is detected rather than hardcoded: rows before the first one matching isDataRow are headers and
+// are skipped. After it the whole sheet is read (it has no end marker): blank rows are ignored and every other row
+// that doesn't match goes to onSkipped, so a malformed row in the middle doesn't silently end the import.
+public final class MatrixSheetReader {
+
+    private MatrixSheetReader() {
+    }
+
+    // SHA-256 (hex) of the workbook file, streamed: equal hashes mean there is nothing new to import
+    public static String contentHash(Path workbook) throws IOException {
+        MessageDigest digest = MatrixRow.sha256();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(workbook), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    // Returns the number of data rows delivered
+    public static int read(Path workbook, Predicate<MatrixRow> isDataRow, Consumer<MatrixRow> consumer,
+                           Consumer<MatrixRow> onSkipped) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(workbook.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg, false);
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return 0;
+            }
+            SheetHandler handler = new SheetHandler(strings, isDataRow, consumer, onSkipped);
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(handler);
+                parser.parse(new InputSource(sheet));
+            }
+            return handler.delivered;
+        }
+    }
+
+    private static final class SheetHandler extends DefaultHandler {
+        private final ReadOnlySharedStringsTable strings;
+        private final Predicate<MatrixRow> isDataRow;
+        private final Consumer<MatrixRow> consumer;
+        private final Consumer<MatrixRow> onSkipped;
+
+        private final StringBuilder text = new StringBuilder();
+        private String[] cells = new String[32];
+        private int lastColumn = -1;
+        private int rowNumber;
+        private int column;
+        private String cellType;
+        private boolean collecting;
+        private boolean inData;
+        private int delivered;
+
+        private SheetHandler(ReadOnlySharedStringsTable strings, Predicate<MatrixRow> isDataRow, Consumer<MatrixRow> consumer,
+                             Consumer<MatrixRow> onSkipped) {
+            this.strings = strings;
+            this.isDataRow = isDataRow;
+            this.consumer = consumer;
+            this.onSkipped = onSkipped;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row" -> {
+                    String r = attributes.getValue("r");
+                    rowNumber = r != null ? Integer.parseInt(r) : rowNumber + 1;
+                    Arrays.fill(cells, 0, lastColumn + 1, null);
+                    lastColumn = -1;
+                }
+                case "c" -> {
+                    column = columnIndex(attributes.getValue("r"), lastColumn + 1);
+                    cellType = attributes.getValue("t");
+                    text.setLength(0);
+                }
+                // <v> holds the value (or shared string index), <t> the text of an inline string
+                case "v", "t" -> collecting = true;
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (collecting) {
+                text.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v", "t" -> collecting = false;
+                case "c" -> setCell(column, cellValue());
+                case "row" -> endRow();
+                default -> {
+                }
+            }
+        }
+
+        private String cellValue() {
+            if (text.isEmpty()) {
+                return null;
+            }
+            String raw = text.toString();
+            String value = switch (cellType == null ? "n" : cellType) {
+                case "s" -> strings.getItemAt(Integer.parseInt(raw)).getString();
+                case "n" -> String.valueOf((int) Double.parseDouble(raw));
+                case "b" -> "1".equals(raw) ? "TRUE" : "FALSE";
+                default -> raw; // inlineStr, str (formula result), e (error)
+            };
+            return value.trim();
+        }
+
+        private void setCell(int index, String value) {
+            if (index >= cells.length) {
+                cells = Arrays.copyOf(cells, Math.max(cells.length * 2, index + 1));
+            }
+            cells[index] = value;
+            lastColumn = Math.max(lastColumn, index);
+        }
+
+        private void endRow() {
+            MatrixRow row = new MatrixRow(rowNumber, Arrays.copyOf(cells, lastColumn + 1));
+            if (isDataRow.test(row)) {
+                inData = true;
+                delivered++;
+                consumer.accept(row);
+            } else if (inData && !isBlank()) {
+                onSkipped.accept(row);
+            }
+        }
+
+        private boolean isBlank() {
+            for (int i = 0; i <= lastColumn; i++) {
+                if (cells[i] != null && !cells[i].isEmpty()) return false;
+            }
+            return true;
+        }
+
+        // "AB12" → 27; falls back to the next column when the reference is missing
+        private static int columnIndex(String reference, int fallback) {
+            if (reference == null) {
+                return fallback;
+            }
+            int index = 0;
+            for (int i = 0; i < reference.length(); i++) {
+                char c = reference.charAt(i);
+                if (c < 'A' || c > 'Z') break;
+                index = index * 26 + (c - 'A' + 1);
+            }
+            return index - 1;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.ivancroce.backend.tools;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Turns one matrix row into a ParsedCountry. Stateless and thread-safe (patterns are compiled once, nothing is shared
+// mutably), so rows can be parsed in parallel ahead of the persistence stage. Each cell is read once per row.
+public final class RowParser {
+
+    // Column layout of matrix.xlsx
+    private static final int NAME = 0;                 // A
+    private static final int YEARS_SCHOOLING = 1;      // B
+    private static final int FIRST_DURATION = 2;       // C..G = 1..5 years
+    private static final int FIRST_CREDITS = 7;        // H..L = credits per year for 1..5 years
+    private static final int HIGHER_GRADE = 12;        // M
+    private static final int LOWER_GRADE = 16;         // Q
+    private static final int EQF_LEVEL = 17;           // R
+    private static final int DENOMINATION = 18;        // S
+    private static final int CREDIT_RATIO = 23;        // X
+    private static final int COUNTRY_CODE = 24;        // Y
+    private static final int MAX_DURATION = 5;
+
+    private static final Pattern LETTERS = Pattern.compile("[A-Z]+");
+    private static final Pattern NUMBER = Pattern.compile("\\d+(?:\\.\\d+)?");
+
+    public record ParsedProgram(int duration, boolean isSpecialProgram, int creditsPerYear, int totalCredits,
+                                int eqfLevel, String officialDenomination) {}
+
+    public record ParsedCountry(int rowNumber, String name, int yearsCompulsorySchooling, String gradingSystem,
+                                String creditRatio, String countryCode, List<ParsedProgram> programs,
+                                String rowHash) {}
+
+    private RowParser() {
+    }
+
+    // Null when the row has no name or no readable years of schooling (reported on stderr, as before)
+    public static ParsedCountry parse(MatrixRow row) {
+        try {
+            String name = row.cell(NAME);
+            if (name == null || name.isEmpty()) return null;
+
+            Integer yearsSchooling = parseIntegerWithAsterisk(row.cell(YEARS_SCHOOLING)); // "13*" -> 13
+            if (yearsSchooling == null) return null;
+
+            String gradingSystem = parseGradingSystem(row.cell(HIGHER_GRADE), row.cell(LOWER_GRADE));
+            return new ParsedCountry(row.rowNumber(), name, yearsSchooling, gradingSystem,
+                    row.cell(CREDIT_RATIO), row.cell(COUNTRY_CODE), parsePrograms(name, row), row.contentHash());
+        } catch (Exception e) {
+            System.err.println("Error parsing row " + row.rowNumber() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // "13*" -> 13, "12|13*" -> 13 (last alternative), "3.5" -> 4
+    public static Integer parseIntegerWithAsterisk(String value) {
+        if (value == null) return null;
+        int end = value.length();
+        while (end > 0 && value.charAt(end - 1) == '|') end--;
+        int start = value.lastIndexOf('|', end - 1) + 1;
+
+        StringBuilder clean = new StringBuilder(end - start);
+        boolean decimal = false;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c == '*') continue;
+            if (c == '.') decimal = true;
+            clean.append(c);
+        }
+        String number = clean.toString().trim();
+        if (number.isEmpty()) return null;
+
+        try {
+            return decimal ? (int) Math.ceil(Double.parseDouble(number)) : Integer.parseInt(number);
+        } catch (NumberFormatException e) {
+            System.err.println("Could not parse: " + value);
+            return null;
+        }
+    }
+
+    // Best (column M, extractHigher) or worst (column Q) grade of a cell such as "1.0-1.5", "A (70-100%)" or "9|10"
+    public static String extractGrade(String cellValue, boolean extractHigher) {
+        if (cellValue == null || cellValue.isBlank()) return null;
+
+        // Alternatives separated by "|": the last one for the best grade, the first one for the worst
+        int pipe = cellValue.indexOf('|');
+        if (pipe >= 0) {
+            String selected;
+            if (extractHigher) {
+                int end = cellValue.length();
+                while (end > 0 && cellValue.charAt(end - 1) == '|') end--; // "9|10|" reads as "9|10"
+                selected = cellValue.substring(cellValue.lastIndexOf('|', end - 1) + 1, end);
+            } else {
+                selected = cellValue.substring(0, pipe);
+            }
+            return extractGrade(selected.trim(), extractHigher);
+        }
+
+        // Letter grades
+        Matcher letters = LETTERS.matcher(cellValue);
+        if (letters.find()) {
+            return letters.group();
+        }
+
+        // Numeric grades: a single value, or a range whose direction depends on the scale
+        Matcher numbers = NUMBER.matcher(cellValue);
+        if (!numbers.find()) return null;
+        double first = Double.parseDouble(numbers.group());
+        double min = first;
+        double max = first;
+        while (numbers.find()) {
+            double value = Double.parseDouble(numbers.group());
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        double result;
+        if (first >= 1 && first <= 6) {
+            // German grading system (higher-lower like 6-1)
+            result = extractHigher ? min : max;
+        } else {
+            // Italian grading system (lower-higher like 18-30)
+            result = extractHigher ? max : min;
+        }
+        return String.valueOf((int) result);
+    }
+
+    // "worst-best", or N/A when either end can't be read
+    public static String parseGradingSystem(String higherCell, String lowerCell) {
+        String higherGrade = extractGrade(higherCell, true);
+        String lowerGrade = extractGrade(lowerCell, false);
+        if (lowerGrade != null && higherGrade != null) {
+            return lowerGrade + "-" + higherGrade;
+        }
+        return "N/A";
+    }
+
+    private static List<ParsedProgram> parsePrograms(String countryName, MatrixRow row) {
+        // Shared by every program of the row: read once
+        Integer eqf = parseIntegerWithAsterisk(row.cell(EQF_LEVEL));
+        int eqfLevel = eqf != null ? eqf : 6; // Default fallback
+        String officialDenomination = row.cell(DENOMINATION);
+        boolean poland = "Poland".equalsIgnoreCase(countryName);
+
+        List<ParsedProgram> programs = new ArrayList<>(MAX_DURATION);
+        for (int duration = 1; duration <= MAX_DURATION; duration++) {
+            String durationValue = row.cell(FIRST_DURATION + duration - 1);
+            if (durationValue == null || durationValue.isBlank()) continue;
+
+            boolean isSpecial = durationValue.indexOf('*') >= 0;
+            Integer credits = parseIntegerWithAsterisk(row.cell(FIRST_CREDITS + duration - 1));
+            int creditsPerYear = credits != null ? credits : 60; // Default fallback
+            int totalCredits = duration * creditsPerYear;
+
+            // Poland's 3.5-year engineering degree sits in the 4-year column: 210 ECTS
+            if (poland && duration == 4 && "3.5*".equals(durationValue)) {
+                creditsPerYear = 60;
+                totalCredits = 210;
+            }
+            programs.add(new ParsedProgram(duration, isSpecial, creditsPerYear, totalCredits, eqfLevel, officialDenomination));
+        }
+        return programs;
+    }
+}
@@ -0,0 +1,29 @@
+package com.ivancroce.backend.tools;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Registered as Hibernate's statement inspector; counts the SQL statements Hibernate prepares on the current thread
+// while counting is on (a JDBC batch is prepared once, so it counts as one)
+public class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    public static void start() {
+        COUNT.set(new int[1]);
+    }
+
+    public static int stop() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count != null ? count[0] : 0;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+}
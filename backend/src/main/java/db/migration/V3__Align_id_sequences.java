@@ -0,0 +1,35 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+// Moves the id sequences created by V2 past the ids handed out by the IDENTITY columns, so the first pooled
+// block (nextval - 49 .. nextval) starts after max(id). Java because the restart value comes from a query:
+// ALTER SEQUENCE ... RESTART WITH takes a literal, and setval() exists on PostgreSQL only, not on the H2 the
+// tests migrate. Lives in db.migration so Flyway finds it next to the SQL scripts, with or without Spring.
+public class V3__Align_id_sequences extends BaseJavaMigration {
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            align(statement, "countries", "countries_seq");
+            align(statement, "bachelor_programs", "bachelor_programs_seq");
+        }
+    }
+
+    private static void align(Statement statement, String table, String sequence) throws Exception {
+        long maxId;
+        try (ResultSet result = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            result.next();
+            maxId = result.getLong(1);
+        }
+        if (maxId > 0) {
+            statement.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (maxId + ALLOCATION_SIZE));
+        }
+    }
+}
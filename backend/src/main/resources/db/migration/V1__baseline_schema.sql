@@ -0,0 +1,41 @@
+-- The schema ddl-auto=update created for the application before migrations existed: IDENTITY ids, no parsed
+-- columns, no import tables. Databases created that way are baselined at version 1
+-- (spring.flyway.baseline-on-migrate) and skip this script; everything added since lives in V2+.
+
+CREATE TABLE countries (
+    id                         BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    name                       VARCHAR(255) NOT NULL,
+    years_compulsory_schooling INTEGER      NOT NULL,
+    grading_system             VARCHAR(255) NOT NULL,
+    credit_ratio               VARCHAR(255),
+    country_code               VARCHAR(2),
+    CONSTRAINT pk_countries PRIMARY KEY (id),
+    CONSTRAINT uk_countries_name UNIQUE (name)
+);
+
+CREATE TABLE bachelor_programs (
+    id                    BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    country_id            BIGINT,
+    duration              INTEGER      NOT NULL,
+    is_special_program    BOOLEAN      NOT NULL,
+    credits_per_year      INTEGER      NOT NULL,
+    total_credits         INTEGER      NOT NULL,
+    eqf_level             INTEGER      NOT NULL,
+    official_denomination VARCHAR(255) NOT NULL,
+    CONSTRAINT pk_bachelor_programs PRIMARY KEY (id),
+    CONSTRAINT fk_bachelor_programs_country FOREIGN KEY (country_id) REFERENCES countries (id)
+);
+
+CREATE TABLE users (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    username   VARCHAR(255) NOT NULL,
+    email      VARCHAR(255) NOT NULL,
+    password   VARCHAR(255) NOT NULL,
+    role       VARCHAR(255) CHECK (role IN ('USER', 'ADMIN', 'STUDENT')),
+    first_name VARCHAR(255) NOT NULL,
+    last_name  VARCHAR(255) NOT NULL,
+    avatar_url VARCHAR(255),
+    CONSTRAINT pk_users PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
@@ -0,0 +1,30 @@
+-- Everything added on top of the baseline schema. IF NOT EXISTS throughout: a database that ran a later build
+-- with ddl-auto=update already has some of these objects.
+
+-- Pooled id sequences (50 ids per round trip, see Country/BachelorProgram); V3 moves them past the existing ids
+CREATE SEQUENCE IF NOT EXISTS countries_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bachelor_programs_seq START WITH 1 INCREMENT BY 50;
+
+-- Typed columns parsed from grading_system and credit_ratio (CountryService.updateParsedColumns, backfilled at startup)
+ALTER TABLE countries ADD COLUMN IF NOT EXISTS grade_min DOUBLE PRECISION;
+ALTER TABLE countries ADD COLUMN IF NOT EXISTS grade_max DOUBLE PRECISION;
+ALTER TABLE countries ADD COLUMN IF NOT EXISTS grade_ascending BOOLEAN;
+ALTER TABLE countries ADD COLUMN IF NOT EXISTS credit_hours_low INTEGER;
+ALTER TABLE countries ADD COLUMN IF NOT EXISTS credit_hours_high INTEGER;
+
+-- Every program belongs to a country (the entity's @JoinColumn(nullable = false))
+ALTER TABLE bachelor_programs ALTER COLUMN country_id SET NOT NULL;
+
+-- Incremental Excel import: workbook hash per source, cell hash per sheet row
+CREATE TABLE IF NOT EXISTS import_state (
+    source       VARCHAR(255) NOT NULL,
+    content_hash VARCHAR(64)  NOT NULL,
+    imported_at  TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_import_state PRIMARY KEY (source)
+);
+
+CREATE TABLE IF NOT EXISTS import_row_state (
+    row_key  VARCHAR(255) NOT NULL,
+    row_hash VARCHAR(64)  NOT NULL,
+    CONSTRAINT pk_import_row_state PRIMARY KEY (row_key)
+);
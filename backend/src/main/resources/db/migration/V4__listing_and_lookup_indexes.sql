@@ -0,0 +1,18 @@
+-- Secondary indexes, owned here instead of @Index + ddl-auto.
+-- IF NOT EXISTS: baselined databases already carry the ones ddl-auto created.
+-- users(username) and users(email) are covered by their unique constraints, so they get no extra index.
+
+-- Country search: grade scale and hours-per-ECTS range filters
+CREATE INDEX IF NOT EXISTS idx_countries_grade_range ON countries (grade_min, grade_max);
+CREATE INDEX IF NOT EXISTS idx_countries_credit_hours ON countries (credit_hours_low, credit_hours_high);
+
+-- Sortable fields (SortableFields in each service); the id suffix serves the keyset tie-breaker
+CREATE INDEX IF NOT EXISTS idx_countries_years ON countries (years_compulsory_schooling, id);
+CREATE INDEX IF NOT EXISTS idx_bachelor_programs_country ON bachelor_programs (country_id, id);
+CREATE INDEX IF NOT EXISTS idx_bachelor_programs_duration ON bachelor_programs (duration, id);
+CREATE INDEX IF NOT EXISTS idx_users_first_name ON users (first_name, id);
+CREATE INDEX IF NOT EXISTS idx_users_last_name ON users (last_name, id);
+
+-- Per-country program lookups: standard program, duration checks, special-program checks
+CREATE INDEX IF NOT EXISTS idx_bachelor_programs_country_duration ON bachelor_programs (country_id, duration);
+CREATE INDEX IF NOT EXISTS idx_bachelor_programs_country_special ON bachelor_programs (country_id, is_special_program);
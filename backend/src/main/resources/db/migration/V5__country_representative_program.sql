@@ -0,0 +1,5 @@
+-- Denormalised pointer to the country's representative program (see Country.representativeProgramId).
+-- No foreign key: the pointer is rewritten in the same transaction as the program writes, and a country delete
+-- cascades to its programs before the country row goes. Existing rows are filled at startup by
+-- BachelorProgramService.backfillRepresentativePrograms, which applies the same rule as the writes.
+ALTER TABLE countries ADD COLUMN representative_program_id BIGINT;
@@ -0,0 +1,7 @@
+-- Per-user token cutoff (TokenRevocationList): revocations survive a restart. No foreign key to users, the
+-- cutoff of a deleted user has to outlive the row; entries older than jwt.expiration are pruned on write.
+CREATE TABLE token_revocations (
+    user_id            BIGINT NOT NULL,
+    tokens_valid_after BIGINT NOT NULL,
+    CONSTRAINT pk_token_revocations PRIMARY KEY (user_id)
+);
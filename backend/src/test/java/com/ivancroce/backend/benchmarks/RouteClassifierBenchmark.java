@@ -0,0 +1,71 @@
+package com.ivancroce.backend.benchmarks;
+
+import com.ivancroce.backend.security.RouteClassifier;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.concurrent.TimeUnit;
+
+// Per-request cost of deciding whether a route skips JWT authentication.
+// antPathMatcher reproduces the previous JWTCheckerFilter.shouldNotFilter (a new matcher and a pattern chain per call).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteClassifierBenchmark {
+
+    @Param({"GET /api/countries/simple", "GET /api/affinity/12/34/report.pdf", "GET /api/users/me", "PUT /api/countries/7"})
+    public String request;
+
+    private String method;
+    private String path;
+    private RouteClassifier routeClassifier;
+
+    @Setup
+    public void setUp() {
+        method = request.substring(0, request.indexOf(' '));
+        path = request.substring(request.indexOf(' ') + 1);
+        routeClassifier = new RouteClassifier();
+    }
+
+    @Benchmark
+    public boolean antPathMatcher() {
+        return previousShouldNotFilter(method, path);
+    }
+
+    @Benchmark
+    public boolean routeClassifier() {
+        return routeClassifier.isPublic(method, path);
+    }
+
+    private static boolean previousShouldNotFilter(String method, String path) {
+        AntPathMatcher matcher = new AntPathMatcher();
+        if (matcher.match("/api/auth/**", path)) {
+            return true;
+        }
+        if ("GET".equals(method)) {
+            if (matcher.match("/api/countries/simple", path) ||
+                    matcher.match("/api/countries/*/representative-program", path) ||
+                    matcher.match("/api/countries/*/has-special-program", path) ||
+                    matcher.match("/api/countries/*/most-compatible", path) ||
+                    matcher.match("/api/countries/*", path) && !path.contains("/search") ||
+                    matcher.match("/api/affinity/*/*", path) ||
+                    matcher.match("/api/affinity/*/*/report.pdf", path) ||
+                    matcher.match("/api/grades/convert", path)) {
+                return true;
+            }
+        }
+        if (matcher.match("/api/feedback", path) && "POST".equals(method)) {
+            return true;
+        }
+        if ((matcher.match("/api/affinity/batch", path) || matcher.match("/api/grades/convert", path)) && "POST".equals(method)) {
+            return true;
+        }
+        return matcher.match("/swagger-ui/**", path) ||
+                matcher.match("/api-docs/**", path) ||
+                matcher.match("/swagger-ui.html", path) ||
+                matcher.match("/v3/api-docs/**", path);
+    }
+}
@@ -0,0 +1,141 @@
+package com.ivancroce.backend.benchmarks;
+
+import com.ivancroce.backend.tools.MatrixRow;
+import com.ivancroce.backend.tools.MatrixSheetReader;
+import com.ivancroce.backend.tools.RowParser;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Cost of the Excel import's parsing stage, per cell and per sheet.
+// previous* reproduce the parsing helpers ExcelImportService had before RowParser (patterns compiled per call).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowParserBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Cell {
+        @Param({"1.0-1.5", "18-30", "A (70-100%)", "9|10"})
+        public String grade;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Sheet {
+        // The sheet rows are repeated up to this many to see where the parallel parse pays off
+        @Param({"31", "4096"})
+        public int rowCount;
+
+        private List<MatrixRow> rows;
+
+        @Setup
+        public void setUp() throws Exception {
+            List<MatrixRow> sheet = new ArrayList<>();
+            MatrixSheetReader.read(new ClassPathResource("data/matrix.xlsx").getFile().toPath(),
+                    row -> row.cell(0) != null && row.cell(1) != null && Character.isDigit(row.cell(1).charAt(0)),
+                    sheet::add, row -> {
+                    });
+            rows = new ArrayList<>(rowCount);
+            for (int i = 0; i < rowCount; i++) {
+                rows.add(sheet.get(i % sheet.size()));
+            }
+        }
+    }
+
+    @Benchmark
+    public String previousExtractGrade(Cell cell) {
+        return previousExtractGradeFromCell(cell.grade, true);
+    }
+
+    @Benchmark
+    public String extractGrade(Cell cell) {
+        return RowParser.extractGrade(cell.grade, true);
+    }
+
+    @Benchmark
+    public Integer previousParseInteger() {
+        return previousParseIntegerWithAsterisk("12|13*");
+    }
+
+    @Benchmark
+    public Integer parseInteger() {
+        return RowParser.parseIntegerWithAsterisk("12|13*");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<RowParser.ParsedCountry> parseSheetSequential(Sheet sheet) {
+        return sheet.rows.stream().map(RowParser::parse).toList();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<RowParser.ParsedCountry> parseSheetParallel(Sheet sheet) {
+        return sheet.rows.parallelStream().map(RowParser::parse).toList();
+    }
+
+    private static Integer previousParseIntegerWithAsterisk(String value) {
+        if (value == null || value.trim().isEmpty()) return null;
+        if (value.contains("|")) {
+            String[] parts = value.split("\\|");
+            value = parts[parts.length - 1].trim();
+        }
+        String clean = value.replaceAll("\\*", "").trim();
+        try {
+            if (clean.contains(".")) {
+                return (int) Math.ceil(Double.parseDouble(clean));
+            }
+            return Integer.parseInt(clean);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String previousExtractGradeFromCell(String cellValue, boolean extractHigher) {
+        if (cellValue == null || cellValue.trim().isEmpty()) return null;
+        if (cellValue.contains("|")) {
+            String[] parts = cellValue.split("\\|");
+            String selectedPart = extractHigher ? parts[parts.length - 1].trim() : parts[0].trim();
+            return previousExtractGradeFromCell(selectedPart, extractHigher);
+        }
+        if (cellValue.matches(".*[A-Z]+.*")) {
+            Matcher matcher = Pattern.compile("([A-Z]+)").matcher(cellValue);
+            if (matcher.find()) {
+                return matcher.group(1);
+            }
+        }
+        if (cellValue.matches(".*\\d+.*")) {
+            List<Double> numbers = new ArrayList<>();
+            Matcher matcher = Pattern.compile("(\\d+(?:\\.\\d+)?)").matcher(cellValue);
+            while (matcher.find()) {
+                numbers.add(Double.parseDouble(matcher.group(1)));
+            }
+            if (!numbers.isEmpty()) {
+                Double result;
+                if (numbers.size() == 1) {
+                    result = numbers.getFirst();
+                } else {
+                    double firstNum = numbers.getFirst();
+                    if (firstNum <= 6 && firstNum >= 1) {
+                        result = extractHigher ?
+                                numbers.stream().min(Double::compare).orElse(firstNum) :
+                                numbers.stream().max(Double::compare).orElse(firstNum);
+                    } else {
+                        result = extractHigher ?
+                                numbers.stream().max(Double::compare).orElse(firstNum) :
+                                numbers.stream().min(Double::compare).orElse(firstNum);
+                    }
+                }
+                return String.valueOf(result.intValue());
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,85 @@
+package com.ivancroce.backend.repositories;
+
+import com.ivancroce.backend.entities.BachelorProgram;
+import com.ivancroce.backend.entities.Country;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationState;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Upgrade path: a database created by the pre-migration build is baselined at V1 and brought up by V2+.
+// Hibernate's validate runs after Flyway, so the context starting at all means the migrated schema fits the entities.
+@DataJpaTest
+class BaselineUpgradeMigrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CountryRepository countryRepository;
+
+    @Autowired
+    private BachelorProgramRepository bachelorProgramRepository;
+
+    @Autowired
+    private org.flywaydb.core.Flyway flyway;
+
+    @Test
+    void baselineIsSkippedAndEveryLaterVersionApplied() {
+        Map<String, MigrationState> states = Arrays.stream(flyway.info().applied())
+                .collect(Collectors.toMap(info -> info.getVersion().getVersion(), MigrationInfo::getState));
+
+        assertEquals(MigrationState.BASELINE, states.get("1"), states::toString);
+        for (String version : new String[]{"2", "3", "4", "5", "6"}) {
+            assertEquals(MigrationState.SUCCESS, states.get(version), () -> version + " " + states);
+        }
+    }
+
+    @Test
+    void newIdsStartPastTheExistingOnes() {
+        Country portugal = countryRepository.saveAndFlush(new Country("Portugal", 12, "0-20", "25-28 HOURS OF STUDENT WORK", "PT"));
+        BachelorProgram licenciatura = bachelorProgramRepository.saveAndFlush(new BachelorProgram(3, false, 60, 6, "Licenciatura", portugal));
+
+        assertTrue(portugal.getId() > 120, () -> "country id " + portugal.getId());
+        assertTrue(licenciatura.getId() > 2, () -> "program id " + licenciatura.getId());
+    }
+
+    @Test
+    void existingRowsKeepTheirDataAndGainTheNewColumns() {
+        assertEquals("Spain", jdbcTemplate.queryForObject("SELECT name FROM countries WHERE id = 120", String.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM countries WHERE grade_min IS NOT NULL", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM import_state", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM import_row_state", Integer.class));
+        assertEquals("NO", jdbcTemplate.queryForObject(
+                "SELECT is_nullable FROM information_schema.columns WHERE LOWER(table_name) = 'bachelor_programs' AND LOWER(column_name) = 'country_id'",
+                String.class));
+    }
+
+    @TestConfiguration
+    static class PreMigrationDatabase {
+
+        // Recreates the old schema right before Flyway sees the (otherwise empty) embedded database
+        @Bean
+        FlywayMigrationStrategy preMigrationSchema() {
+            return flyway -> {
+                new ResourceDatabasePopulator(new ClassPathResource("db/pre-migration-schema.sql"))
+                        .execute(flyway.getConfiguration().getDataSource());
+                flyway.migrate();
+            };
+        }
+    }
+}
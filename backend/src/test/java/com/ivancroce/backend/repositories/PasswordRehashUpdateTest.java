@@ -0,0 +1,49 @@
+package com.ivancroce.backend.repositories;
+
+import com.ivancroce.backend.entities.User;
+import com.ivancroce.backend.enums.Role;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The login re-hash only replaces the hash it verified: a password changed while it ran is kept
+@DataJpaTest
+class PasswordRehashUpdateTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Long persistUser(String password) {
+        User user = entityManager.persist(new User("mrossi", "mario@example.com", password, Role.STUDENT, "Mario", "Rossi"));
+        entityManager.flush();
+        entityManager.clear();
+        return user.getId();
+    }
+
+    private String storedPassword(Long id) {
+        entityManager.clear();
+        return userRepository.findById(id).orElseThrow().getPassword();
+    }
+
+    @Test
+    void rehashReplacesTheHashItVerified() {
+        Long id = persistUser("$2a$10$old");
+
+        assertEquals(1, userRepository.updatePasswordIfUnchanged(id, "$2a$10$old", "$2a$12$rehashed"));
+        assertEquals("$2a$12$rehashed", storedPassword(id));
+    }
+
+    @Test
+    void rehashDoesNotOverwriteAPasswordChangedMeanwhile() {
+        Long id = persistUser("$2a$10$changed-by-user");
+
+        assertEquals(0, userRepository.updatePasswordIfUnchanged(id, "$2a$10$old", "$2a$12$rehashed"));
+        assertEquals("$2a$10$changed-by-user", storedPassword(id));
+    }
+}
@@ -0,0 +1,92 @@
+package com.ivancroce.backend.repositories;
+
+import com.ivancroce.backend.entities.BachelorProgram;
+import com.ivancroce.backend.entities.Country;
+import com.ivancroce.backend.payloads.CountryDetailsDTO;
+import com.ivancroce.backend.services.BachelorProgramService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The public lookup reads the stored pointer: one statement, whatever the rule had to look at to choose it
+@DataJpaTest(properties = SqlCapture.PROPERTY)
+@ExtendWith(SqlCapture.class)
+class RepresentativeProgramLookupTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BachelorProgramRepository bachelorProgramRepository;
+
+    @Autowired
+    private CountryRepository countryRepository;
+
+    private Country italy;
+    private BachelorProgram laurea;
+
+    @BeforeEach
+    void setUp() {
+        // 13 years of schooling: the standard program is the 3-year one, although a longer one exists
+        italy = entityManager.persist(new Country("Italy", 13, "18-30", "25 HOURS OF STUDENT WORK", "IT"));
+        laurea = entityManager.persist(new BachelorProgram(3, false, 60, 6, "Laurea", italy));
+        BachelorProgram cicloUnico = entityManager.persist(new BachelorProgram(5, false, 60, 7, "Laurea magistrale a ciclo unico", italy));
+        BachelorProgramService.assignRepresentativeProgram(italy, List.of(laurea, cicloUnico));
+        entityManager.flush();
+        entityManager.clear();
+        SqlCapture.clear();
+    }
+
+    @Test
+    void lookupFollowsTheStoredPointerInOneStatement() {
+        BachelorProgram representative = bachelorProgramRepository.findRepresentativeProgram(italy.getId()).orElseThrow();
+
+        assertEquals(laurea.getId(), representative.getId());
+        assertEquals(1, SqlCapture.statements().size(), SqlCapture.statements()::toString);
+    }
+
+    @Test
+    void batchLookupJoinsTheProgramAndTheFlagInOneStatement() {
+        Country austria = entityManager.persist(new Country("Austria", 9, "1-5", "25 HOURS OF STUDENT WORK", "AT"));
+        BachelorProgram special = entityManager.persist(new BachelorProgram(4, true, 60, 6, "Bachelor (special)", austria));
+        BachelorProgramService.assignRepresentativeProgram(austria, List.of(special));
+        entityManager.flush();
+        entityManager.clear();
+        SqlCapture.clear();
+
+        Map<Long, CountryDetailsDTO> details = countryRepository.findDetailsByIdIn(List.of(italy.getId(), austria.getId(), -1L))
+                .stream().collect(Collectors.toMap(row -> row.country().getId(), row -> row));
+
+        assertEquals(1, SqlCapture.statements().size(), SqlCapture.statements()::toString);
+        assertTrue(SqlCapture.statements().getFirst().toLowerCase(Locale.ROOT).contains(" in ("));
+        assertEquals(2, details.size());
+        assertEquals(laurea.getId(), details.get(italy.getId()).representativeProgram().getId());
+        assertFalse(details.get(italy.getId()).hasSpecialProgram());
+        assertEquals(special.getId(), details.get(austria.getId()).representativeProgram().getId());
+        assertTrue(details.get(austria.getId()).hasSpecialProgram());
+    }
+
+    @Test
+    void countryWithoutProgramsHasNoPointer() {
+        Country austria = entityManager.persist(new Country("Austria", 9, "1-5", "25 HOURS OF STUDENT WORK", "AT"));
+        BachelorProgramService.assignRepresentativeProgram(austria, List.of());
+        entityManager.flush();
+
+        assertNull(austria.getRepresentativeProgramId());
+        assertTrue(bachelorProgramRepository.findRepresentativeProgram(austria.getId()).isEmpty());
+        assertEquals(List.of(), countryRepository.findMissingRepresentativeProgram());
+    }
+}
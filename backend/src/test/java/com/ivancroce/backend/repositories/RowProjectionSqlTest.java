@@ -0,0 +1,160 @@
+package com.ivancroce.backend.repositories;
+
+import com.ivancroce.backend.entities.BachelorProgram;
+import com.ivancroce.backend.entities.Country;
+import com.ivancroce.backend.entities.User;
+import com.ivancroce.backend.enums.Role;
+import com.ivancroce.backend.exceptions.BadRequestException;
+import com.ivancroce.backend.payloads.CountryRow;
+import com.ivancroce.backend.payloads.CursorPageDTO;
+import com.ivancroce.backend.payloads.ProgramRow;
+import com.ivancroce.backend.payloads.UserRow;
+import com.ivancroce.backend.tools.KeysetCursor;
+import com.ivancroce.backend.tools.SortableFields;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The admin listings must select only the columns of their row records, never whole entities
+@DataJpaTest(properties = SqlCapture.PROPERTY)
+@ExtendWith(SqlCapture.class)
+class RowProjectionSqlTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CountryRepository countryRepository;
+
+    @Autowired
+    private BachelorProgramRepository bachelorProgramRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Country italy;
+
+    @BeforeEach
+    void setUp() {
+        italy = entityManager.persist(new Country("Italy", 13, "18-30", "25 HOURS OF STUDENT WORK", "IT"));
+        entityManager.persist(new BachelorProgram(3, false, 60, 6, "Laurea", italy));
+        entityManager.persist(new User("mrossi", "mario.rossi@example.com", "hash", Role.USER, "Mario", "Rossi"));
+        entityManager.flush();
+        entityManager.clear();
+        SqlCapture.clear();
+    }
+
+    @Test
+    void countryRowsSelectOnlyTheRenderedColumns() {
+        Page<CountryRow> page = countryRepository.findRows(Specification.unrestricted(), PageRequest.of(0, 10, Sort.by("name")));
+
+        assertEquals(List.of(new CountryRow(italy.getId(), "Italy", 13, "18-30", "25 HOURS OF STUDENT WORK", "IT")), page.getContent());
+        assertEquals(Set.of("id", "name", "years_compulsory_schooling", "grading_system", "credit_ratio", "country_code"),
+                selectedColumns("countries"));
+    }
+
+    @Test
+    void programRowsSelectOnlyTheRenderedColumns() {
+        Specification<BachelorProgram> byCountry = (root, query, builder) -> builder.equal(root.get("country").get("id"), italy.getId());
+        Page<ProgramRow> page = bachelorProgramRepository.findRows(byCountry, PageRequest.of(0, 10, Sort.by("id")));
+
+        assertEquals(1, page.getTotalElements());
+        assertEquals(italy.getId(), page.getContent().getFirst().countryId());
+        assertEquals(180, page.getContent().getFirst().totalCredits());
+        assertEquals(Set.of("id", "country_id", "duration", "is_special_program", "credits_per_year", "total_credits",
+                "eqf_level", "official_denomination"), selectedColumns("bachelor_programs"));
+    }
+
+    @Test
+    void userRowsSelectOnlyTheRenderedColumns() {
+        Page<UserRow> page = userRepository.findRows(Specification.unrestricted(), PageRequest.of(0, 10, Sort.by("firstName")));
+
+        UserRow row = page.getContent().getFirst();
+        assertEquals("mrossi", row.username());
+        assertEquals(Role.USER, row.role());
+        assertEquals(Set.of("id", "username", "email", "first_name", "last_name", "avatar_url", "role"), selectedColumns("users"));
+    }
+
+    @Test
+    void countryKeysetPagesSeekPastTheCursorWithoutCountOrOffset() {
+        entityManager.persist(new Country("Austria", 9, "1-5", "25 HOURS OF STUDENT WORK", "AT"));
+        entityManager.persist(new Country("France", 9, "0-20", "25-30 HOURS OF STUDENT WORK", "FR"));
+        entityManager.flush();
+        entityManager.clear();
+        SqlCapture.clear();
+
+        Sort sort = SortableFields.of("name", "yearsCompulsorySchooling").sort("yearsCompulsorySchooling", "desc");
+        List<String> names = new ArrayList<>();
+        String after = "";
+        do {
+            CursorPageDTO<CountryRow> page = KeysetCursor.page(countryRepository.scrollRows(Specification.unrestricted(), sort, 2,
+                    KeysetCursor.decode(after, sort, Country.class)), sort);
+            page.content().forEach(row -> names.add(row.name()));
+            after = page.nextCursor();
+        } while (after != null);
+
+        // Ties on the sort key fall back to id order, so Austria (persisted first) precedes France
+        assertEquals(List.of("Italy", "Austria", "France"), names);
+        assertTrue(SqlCapture.statements().stream().map(sql -> sql.toLowerCase(Locale.ROOT))
+                .noneMatch(sql -> sql.contains("count(") || sql.contains(" offset ")), SqlCapture.statements()::toString);
+    }
+
+    @Test
+    void cursorIsBoundToTheSortItWasIssuedFor() {
+        entityManager.persist(new Country("Austria", 9, "1-5", "25 HOURS OF STUDENT WORK", "AT"));
+        entityManager.flush();
+
+        Sort byName = SortableFields.of("name").sort("name", "asc");
+        String next = KeysetCursor.page(countryRepository.scrollRows(Specification.unrestricted(), byName, 1,
+                KeysetCursor.decode("", byName, Country.class)), byName).nextCursor();
+
+        Sort byNameDesc = SortableFields.of("name").sort("name", "desc");
+        assertThrows(BadRequestException.class, () -> KeysetCursor.decode(next, byNameDesc, Country.class));
+        assertThrows(BadRequestException.class, () -> KeysetCursor.decode("not-a-cursor", byName, Country.class));
+        // Forged cursors carrying the right sort: missing id, an extra key, a Long where name holds a String
+        for (Map<String, Object> keys : List.<Map<String, Object>>of(Map.of("name", "Austria"),
+                Map.of("name", "Austria", "id", 1L, "countryCode", "AT"), Map.of("name", 5L, "id", 1L))) {
+            String forged = KeysetCursor.encode(ScrollPosition.forward(keys), byName);
+            assertThrows(BadRequestException.class, () -> KeysetCursor.decode(forged, byName, Country.class), keys::toString);
+        }
+        assertThrows(BadRequestException.class, () -> SortableFields.of("name").sort("gradeMin", "asc"));
+        assertNull(KeysetCursor.page(countryRepository.scrollRows(Specification.unrestricted(), byName, 1,
+                KeysetCursor.decode(next, byName, Country.class)), byName).nextCursor());
+    }
+
+    // Columns in the select list of the (only) row query issued against the table, without table aliases
+    private static Set<String> selectedColumns(String table) {
+        List<String> queries = SqlCapture.statements().stream()
+                .map(sql -> sql.toLowerCase(Locale.ROOT))
+                .filter(sql -> sql.startsWith("select") && sql.contains(" from " + table + " ") && !sql.contains("count("))
+                .toList();
+        assertEquals(1, queries.size(), () -> "Expected one row query on " + table + ", got " + SqlCapture.statements());
+
+        String sql = queries.getFirst();
+        String selectList = sql.substring("select".length(), sql.indexOf(" from ")).trim();
+        return Arrays.stream(selectList.split(","))
+                .map(column -> column.trim().substring(column.trim().indexOf('.') + 1))
+                .collect(Collectors.toSet());
+    }
+}
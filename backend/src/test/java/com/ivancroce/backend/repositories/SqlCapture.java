@@ -0,0 +1,40 @@
+package com.ivancroce.backend.repositories;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Records the SQL Hibernate sends. Hibernate creates its own instance from the class name (PROPERTY), so the list is
+// static; registered with @ExtendWith as well, it is emptied before every test and nothing leaks between tests/classes
+public class SqlCapture implements StatementInspector, BeforeEachCallback {
+
+    public static final String PROPERTY =
+            "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.ivancroce.backend.repositories.SqlCapture";
+
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql);
+        return sql;
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        clear();
+    }
+
+    // Also called after a test's own setup, so only the statements under test are counted
+    static void clear() {
+        STATEMENTS.clear();
+    }
+
+    // Live, read-only view
+    static List<String> statements() {
+        return Collections.unmodifiableList(STATEMENTS);
+    }
+}
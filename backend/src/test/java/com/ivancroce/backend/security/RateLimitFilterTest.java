@@ -0,0 +1,120 @@
+package com.ivancroce.backend.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ivancroce.backend.config.RateLimitProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimitFilterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+    // 10 logins a minute: one token every 6 s
+    private static final long INTERVAL = 6 * SECOND;
+
+    private RateLimitFilter filter;
+
+    private RateLimitFilter filter(int maxClients) {
+        filter = new RateLimitFilter(new RateLimitProperties(true, Duration.ofMinutes(10), maxClients,
+                List.of(new RateLimitProperties.Route("POST", "/api/auth/login", 10, Duration.ofMinutes(1)))),
+                new ObjectMapper());
+        return filter;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (filter != null) filter.stopSweeper();
+    }
+
+    private long login(String client, long now) {
+        return filter.tryAcquire("POST", "/api/auth/login", client, now);
+    }
+
+    @Test
+    void burstOfCapacityThenRefused() {
+        filter(100);
+        long now = 1_000 * SECOND;
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, login("10.0.0.1", now), "request " + i);
+        }
+        assertEquals(INTERVAL, login("10.0.0.1", now));
+        // Other clients and unlimited routes are unaffected
+        assertEquals(0, login("10.0.0.2", now));
+        assertEquals(0, filter.tryAcquire("GET", "/api/countries", "10.0.0.1", now));
+    }
+
+    @Test
+    void oneTokenComesBackPerRefillInterval() {
+        filter(100);
+        long now = 1_000 * SECOND;
+        for (int i = 0; i < 10; i++) login("10.0.0.1", now);
+
+        assertEquals(SECOND, login("10.0.0.1", now + INTERVAL - SECOND));
+        assertEquals(0, login("10.0.0.1", now + INTERVAL));
+        assertEquals(INTERVAL, login("10.0.0.1", now + INTERVAL));
+        // A full refill period restores the whole burst
+        long later = now + INTERVAL + 60 * SECOND;
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, login("10.0.0.1", later), "request " + i);
+        }
+    }
+
+    @Test
+    void retryAfterRoundsUpToWholeSecondsAndIsNeverZero() {
+        assertEquals(1, RateLimitFilter.retryAfterSeconds(1));
+        assertEquals(1, RateLimitFilter.retryAfterSeconds(SECOND));
+        assertEquals(2, RateLimitFilter.retryAfterSeconds(SECOND + 1));
+        assertEquals(6, RateLimitFilter.retryAfterSeconds(INTERVAL));
+    }
+
+    @Test
+    void fullMapEvictsInsteadOfPoolingNewClients() {
+        filter(3);
+        long now = 1_000 * SECOND;
+        // Three attackers, each owing time
+        for (String attacker : List.of("203.0.113.1", "203.0.113.2", "203.0.113.3")) {
+            for (int i = 0; i < 10; i++) login(attacker, now + (attacker.endsWith("1") ? 0 : SECOND));
+        }
+        assertEquals(3, filter.trackedClients());
+
+        // A new visitor gets a full bucket of its own; the stalest attacker bucket made room
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, login("198.51.100.7", now + 2 * SECOND), "request " + i);
+        }
+        assertTrue(filter.trackedClients() <= 3);
+        assertEquals(0, login("198.51.100.8", now + 2 * SECOND));
+        assertTrue(filter.trackedClients() <= 3);
+    }
+
+    @Test
+    void refilledBucketsAreDroppedFirst() {
+        filter(2);
+        long now = 1_000 * SECOND;
+        login("10.0.0.1", now);
+        for (int i = 0; i < 10; i++) login("10.0.0.2", now);
+
+        // 10.0.0.1 is full again after one interval; 10.0.0.2 still owes time and keeps its bucket
+        login("10.0.0.3", now + INTERVAL + 1);
+        assertEquals(2, filter.trackedClients());
+        assertEquals(0, login("10.0.0.2", now + INTERVAL + 1));
+        assertTrue(login("10.0.0.2", now + INTERVAL + 1) > 0);
+    }
+
+    @Test
+    void ipv6ClientsShareTheirSlash64() {
+        assertEquals(RateLimitFilter.clientId("2001:db8:1:2::1"), RateLimitFilter.clientId("2001:db8:1:2:ffff:ffff:ffff:ffff"));
+        assertNotEquals(RateLimitFilter.clientId("2001:db8:1:2::1"), RateLimitFilter.clientId("2001:db8:1:3::1"));
+        assertEquals("192.0.2.1", RateLimitFilter.clientId("192.0.2.1"));
+
+        filter(100);
+        long now = 1_000 * SECOND;
+        for (int i = 0; i < 10; i++) login("2001:db8:1:2::" + Integer.toHexString(i + 1), now);
+        assertEquals(INTERVAL, login("2001:db8:1:2::abcd", now));
+    }
+}
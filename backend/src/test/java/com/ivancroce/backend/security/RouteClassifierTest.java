@@ -0,0 +1,77 @@
+package com.ivancroce.backend.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static com.ivancroce.backend.security.RouteClassifier.RouteAccess.AUTHENTICATED;
+import static com.ivancroce.backend.security.RouteClassifier.RouteAccess.PUBLIC;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteClassifierTest {
+
+    private final RouteClassifier classifier = new RouteClassifier();
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        return request;
+    }
+
+    @Test
+    void publicAffinityRoutes() {
+        assertEquals(PUBLIC, classifier.classify("GET", "/api/countries/5"));
+        assertEquals(PUBLIC, classifier.classify("GET", "/api/countries/5/representative-program"));
+        assertEquals(PUBLIC, classifier.classify("GET", "/api/affinity/1/2"));
+        assertEquals(PUBLIC, classifier.classify("GET", "/api/affinity/1/2/report.pdf"));
+        assertEquals(PUBLIC, classifier.classify("POST", "/api/feedback"));
+    }
+
+    @Test
+    void everythingElseNeedsAToken() {
+        assertEquals(AUTHENTICATED, classifier.classify("GET", "/api/users"));
+        assertEquals(AUTHENTICATED, classifier.classify("GET", "/api/users/me"));
+        assertEquals(AUTHENTICATED, classifier.classify("GET", "/api/countries/5/programs"));
+        assertEquals(AUTHENTICATED, classifier.classify("GET", "/api/admin/cache-stats"));
+    }
+
+    @Test
+    void adminSearchIsCarvedOutOfTheCountryWildcard() {
+        assertEquals(AUTHENTICATED, classifier.classify("GET", "/api/countries/search"));
+        assertFalse(classifier.isPublic(request("GET", "/api/countries/search")));
+    }
+
+    @Test
+    void wrongMethodOnAPublicPathNeedsAToken() {
+        assertEquals(AUTHENTICATED, classifier.classify("PUT", "/api/countries/5"));
+        assertEquals(AUTHENTICATED, classifier.classify("DELETE", "/api/countries/5"));
+        assertEquals(AUTHENTICATED, classifier.classify("GET", "/api/feedback"));
+        assertEquals(AUTHENTICATED, classifier.classify("DELETE", "/api/affinity/batch"));
+    }
+
+    @Test
+    void anyDepthRoutesMatchEveryMethodAndDepth() {
+        assertEquals(PUBLIC, classifier.classify("POST", "/api/auth/login"));
+        assertEquals(PUBLIC, classifier.classify("DELETE", "/api/auth/anything/deeper"));
+        assertEquals(PUBLIC, classifier.classify("GET", "/swagger-ui/index.html"));
+        assertEquals(PUBLIC, classifier.classify("GET", "/v3/api-docs"));
+        assertEquals(AUTHENTICATED, classifier.classify("GET", "/api/authors"));
+    }
+
+    @Test
+    void countryListingIsPublicOnlyWithTheIdsParameter() {
+        MockHttpServletRequest batch = request("GET", "/api/countries");
+        batch.setParameter("ids", "1,2");
+        MockHttpServletRequest listing = request("GET", "/api/countries");
+        listing.setParameter("page", "0");
+        MockHttpServletRequest create = request("POST", "/api/countries");
+        create.setParameter("ids", "1,2");
+
+        assertTrue(classifier.isPublic(batch));
+        assertFalse(classifier.isPublic(listing));
+        assertFalse(classifier.isPublic(create));
+        // The path/method check alone doesn't see parameters
+        assertFalse(classifier.isPublic("GET", "/api/countries"));
+    }
+}
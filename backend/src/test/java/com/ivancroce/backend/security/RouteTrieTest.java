@@ -0,0 +1,63 @@
+package com.ivancroce.backend.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RouteTrieTest {
+
+    @Test
+    void literalBeatsSingleSegmentWildcardBeatsAnyDepth() {
+        RouteTrie<String> trie = new RouteTrie<>();
+        trie.add("GET", "/api/**", "any-depth");
+        trie.add("GET", "/api/*", "segment");
+        trie.add("GET", "/api/search", "literal");
+
+        assertEquals("literal", trie.find("GET", "/api/search"));
+        assertEquals("segment", trie.find("GET", "/api/42"));
+        assertEquals("any-depth", trie.find("GET", "/api/42/programs"));
+    }
+
+    @Test
+    void anyDepthMatchesZeroOrMoreSegments() {
+        RouteTrie<String> trie = new RouteTrie<>();
+        trie.add("GET", "/docs/**", "docs");
+
+        assertEquals("docs", trie.find("GET", "/docs"));
+        assertEquals("docs", trie.find("GET", "/docs/index.html"));
+        assertEquals("docs", trie.find("GET", "/docs/a/b/c"));
+        assertNull(trie.find("GET", "/documents"));
+    }
+
+    @Test
+    void singleSegmentWildcardNeedsExactlyOneNonEmptySegment() {
+        RouteTrie<String> trie = new RouteTrie<>();
+        trie.add("GET", "/api/countries/*", "country");
+
+        assertEquals("country", trie.find("GET", "/api/countries/5"));
+        assertNull(trie.find("GET", "/api/countries"));
+        assertNull(trie.find("GET", "/api/countries/5/programs"));
+    }
+
+    @Test
+    void deadEndLiteralBranchFallsBackToTheWildcard() {
+        RouteTrie<String> trie = new RouteTrie<>();
+        trie.add("GET", "/a/b/c", "literal");
+        trie.add("GET", "/a/*/d", "wildcard");
+
+        assertEquals("wildcard", trie.find("GET", "/a/b/d"));
+        assertEquals("literal", trie.find("GET", "/a/b/c"));
+    }
+
+    @Test
+    void methodSpecificRoutesComeBeforeAnyMethodOnes() {
+        RouteTrie<String> trie = new RouteTrie<>();
+        trie.add(RouteTrie.ANY_METHOD, "/api/auth/**", "any");
+        trie.add("POST", "/api/auth/login", "post");
+
+        assertEquals("post", trie.find("POST", "/api/auth/login"));
+        assertEquals("any", trie.find("DELETE", "/api/auth/login"));
+        assertNull(trie.find("POST", "/api/users"));
+    }
+}
@@ -0,0 +1,65 @@
+package com.ivancroce.backend.security;
+
+import com.ivancroce.backend.entities.TokenRevocation;
+import com.ivancroce.backend.repositories.TokenRevocationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A revocation has to hold across a restart: a fresh list over the same table rejects the same tokens
+@DataJpaTest
+class TokenRevocationListTest {
+
+    private static final long EXPIRATION_MILLIS = 3_600_000;
+
+    @Autowired
+    private TokenRevocationRepository tokenRevocationRepository;
+
+    private TokenRevocationList startedList() {
+        TokenRevocationList list = new TokenRevocationList(EXPIRATION_MILLIS, tokenRevocationRepository);
+        list.load();
+        return list;
+    }
+
+    @Test
+    void revocationSurvivesARestart() {
+        long issuedAt = System.currentTimeMillis() / 1000 - 60;
+        startedList().revoke(7L);
+
+        TokenRevocationList restarted = startedList();
+
+        assertTrue(restarted.isRevoked(7L, issuedAt));
+        assertFalse(restarted.isRevoked(8L, issuedAt));
+        // A token issued after the revocation is fine
+        assertFalse(restarted.isRevoked(7L, System.currentTimeMillis() / 1000 + 1));
+    }
+
+    @Test
+    void tokenIssuedInTheRevocationSecondIsAccepted() {
+        long revokedAt = System.currentTimeMillis() / 1000;
+        tokenRevocationRepository.save(new TokenRevocation(5L, revokedAt));
+
+        TokenRevocationList restarted = startedList();
+
+        // Logging in right after a password change gets a token with the same iat second
+        assertFalse(restarted.isRevoked(5L, revokedAt));
+        assertTrue(restarted.isRevoked(5L, revokedAt - 1));
+    }
+
+    @Test
+    void cutoffsOlderThanTheTokenLifetimeAreNotLoadedAndArePruned() {
+        long now = System.currentTimeMillis() / 1000;
+        tokenRevocationRepository.save(new TokenRevocation(3L, now - 2 * EXPIRATION_MILLIS / 1000));
+
+        TokenRevocationList restarted = startedList();
+        assertEquals(0, restarted.size());
+
+        restarted.revoke(4L);
+        assertFalse(tokenRevocationRepository.existsById(3L));
+        assertTrue(tokenRevocationRepository.existsById(4L));
+    }
+}
@@ -0,0 +1,60 @@
+package com.ivancroce.backend.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ivancroce.backend.exceptions.BadRequestException;
+import com.ivancroce.backend.payloads.AffinityBatchRequest;
+import com.ivancroce.backend.payloads.AffinityPairDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// No repositories or matrix wired: every comparison fails, which is exactly the path under test
+class AffinityBatchTest {
+
+    private final AffinityService affinityService = new AffinityService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(affinityService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(affinityService, "batchPoolSize", 1);
+        ReflectionTestUtils.setField(affinityService, "batchQueueCapacity", 4);
+        ReflectionTestUtils.setField(affinityService, "maxInFlight", 2);
+        affinityService.startBatchExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        affinityService.stopBatchExecutor();
+    }
+
+    @Test
+    void nullPairIsABadRequest() {
+        AffinityBatchRequest request = new AffinityBatchRequest(Arrays.asList(new AffinityPairDTO(1L, 2L), null), null);
+
+        assertThrows(BadRequestException.class, () -> affinityService.validateBatch(request));
+    }
+
+    @Test
+    void failingPairBecomesAnErrorLineAndTheStreamGoesOn() throws Exception {
+        AffinityBatchRequest request = new AffinityBatchRequest(
+                List.of(new AffinityPairDTO(1L, 2L), new AffinityPairDTO(3L, 4L), new AffinityPairDTO(5L, 6L)), null);
+        affinityService.validateBatch(request);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        affinityService.streamBatch(request, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(3, lines.size(), lines::toString);
+        assertTrue(lines.get(2).contains("\"countryA\":5") && lines.get(2).contains("\"error\":\"Comparison failed\""), lines::toString);
+    }
+}
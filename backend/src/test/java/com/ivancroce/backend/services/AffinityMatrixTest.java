@@ -0,0 +1,66 @@
+package com.ivancroce.backend.services;
+
+import com.ivancroce.backend.payloads.AffinityCountryDTO;
+import com.ivancroce.backend.payloads.AffinityProgramDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AffinityMatrixTest {
+
+    private static AffinityCountryDTO country(long id, int duration, String creditRatio) {
+        return new AffinityCountryDTO(id, "Country " + id, "C" + id, 13, "18-30", creditRatio, false,
+                new AffinityProgramDTO(id * 10, duration, false, 60, 180, 6, "Bachelor"));
+    }
+
+    // Seen from ordinal 0: ordinals 2 and 4 score 100, 1 and 3 score 90 (one MODERATE category), 5 scores 75 (one LOW)
+    private final AffinityMatrixService.Matrix matrix = AffinityMatrixService.Matrix.build(List.of(
+            country(1, 3, "25 HOURS"),
+            country(2, 4, "25 HOURS"),
+            country(3, 3, "25 HOURS"),
+            country(4, 3, "30 HOURS"),
+            country(5, 3, "25 HOURS"),
+            country(6, 5, "25 HOURS")
+    ), null, null, 1);
+
+    @Test
+    void scoresMatchTheFixture() {
+        assertEquals(100, matrix.score(0, 2));
+        assertEquals(90, matrix.score(0, 1));
+        assertEquals(90, matrix.score(0, 3));
+        assertEquals(75, matrix.score(0, 5));
+    }
+
+    @Test
+    void kLargerThanTheMatrixReturnsEveryOtherCountryRanked() {
+        assertArrayEquals(new int[]{2, 4, 1, 3, 5}, matrix.topCompatible(0, 50, candidate -> true));
+    }
+
+    @Test
+    void tiesAreOrderedByOrdinal() {
+        assertArrayEquals(new int[]{2}, matrix.topCompatible(0, 1, candidate -> true));
+        assertArrayEquals(new int[]{2, 4}, matrix.topCompatible(0, 2, candidate -> true));
+        assertArrayEquals(new int[]{2, 4, 1}, matrix.topCompatible(0, 3, candidate -> true));
+    }
+
+    @Test
+    void predicateExcludingEverythingReturnsNothing() {
+        assertArrayEquals(new int[0], matrix.topCompatible(0, 5, candidate -> false));
+    }
+
+    @Test
+    void predicateFiltersBeforeRanking() {
+        assertArrayEquals(new int[]{1, 3, 5}, matrix.topCompatible(0, 5, candidate -> candidate % 2 == 1));
+    }
+
+    @Test
+    void theCountryItselfIsNeverRanked() {
+        // Ordinal 2 scores 100 against itself, yet only the others come back
+        assertArrayEquals(new int[]{0, 4, 1, 3, 5}, matrix.topCompatible(2, 10, candidate -> true));
+        assertArrayEquals(new int[0], AffinityMatrixService.Matrix.build(List.of(country(1, 3, "25 HOURS")), null, null, 1)
+                .topCompatible(0, 5, candidate -> true));
+    }
+}
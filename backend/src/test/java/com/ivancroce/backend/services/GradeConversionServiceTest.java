@@ -0,0 +1,82 @@
+package com.ivancroce.backend.services;
+
+import com.ivancroce.backend.entities.Country;
+import com.ivancroce.backend.exceptions.BadRequestException;
+import com.ivancroce.backend.exceptions.NotFoundException;
+import com.ivancroce.backend.payloads.TranscriptConversionRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@Import(GradeConversionService.class)
+class GradeConversionServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private GradeConversionService gradeConversionService;
+
+    private Country germany;
+
+    @BeforeEach
+    void setUp() {
+        entityManager.persist(new Country("Italy", 13, "18-30", "25 HOURS OF STUDENT WORK", "IT"));
+        germany = entityManager.persist(new Country("Germany", 13, "4-1", "30 HOURS OF STUDENT WORK", "DE"));
+        entityManager.persist(new Country("United States", 12, "F-A", null, "US"));
+        entityManager.persist(new Country("Nowhere", 12, "N/A", null, "NW"));
+        entityManager.flush();
+        gradeConversionService.rebuild();
+    }
+
+    @Test
+    void convertsBetweenNumericReversedAndLetterScales() {
+        assertEquals("2.5", gradeConversionService.convert("it", "de", "24").convertedGrade());
+        assertEquals("30", gradeConversionService.convert("DE", "IT", "1").convertedGrade());
+        assertEquals("A", gradeConversionService.convert("IT", "US", "30").convertedGrade());
+        assertEquals("18", gradeConversionService.convert("US", "IT", "F").convertedGrade());
+    }
+
+    @Test
+    void convertsAWholeTranscriptInOrder() {
+        List<String> converted = gradeConversionService.convertTranscript(
+                new TranscriptConversionRequest("IT", "DE", List.of("18", "24", "30"))).convertedGrades();
+
+        assertEquals(List.of("4", "2.5", "1"), converted);
+    }
+
+    @Test
+    void rejectsGradesOutsideTheScaleOrNotNumbers() {
+        assertThrows(BadRequestException.class, () -> gradeConversionService.convert("IT", "DE", "31"));
+        assertThrows(BadRequestException.class, () -> gradeConversionService.convert("IT", "DE", "NaN"));
+        assertThrows(BadRequestException.class, () -> gradeConversionService.convert("IT", "DE", "Infinity"));
+        assertThrows(BadRequestException.class, () -> gradeConversionService.convert("US", "IT", "Z"));
+        assertThrows(BadRequestException.class, () -> gradeConversionService.convertTranscript(
+                new TranscriptConversionRequest("IT", "DE", Arrays.asList("24", null))));
+    }
+
+    @Test
+    void unknownOrUnconvertibleCountriesAreNotFound() {
+        assertThrows(NotFoundException.class, () -> gradeConversionService.convert("IT", "XX", "24"));
+        assertThrows(NotFoundException.class, () -> gradeConversionService.convert("NW", "IT", "24"));
+    }
+
+    @Test
+    void refreshPicksUpAChangedGradingSystem() {
+        germany.setGradingSystem("1-6");
+        entityManager.flush();
+        gradeConversionService.refreshCountry(germany.getId());
+
+        assertEquals("6", gradeConversionService.convert("IT", "DE", "30").convertedGrade());
+    }
+}
@@ -0,0 +1,75 @@
+package com.ivancroce.backend.tools;
+
+import com.ivancroce.backend.exceptions.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GradeScaleTest {
+
+    private static final double DELTA = 1e-9;
+
+    private final GradeScale italy = GradeScale.compile(1L, "it", "18-30");
+    private final GradeScale germany = GradeScale.compile(2L, "DE", "4-1");
+    private final GradeScale usa = GradeScale.compile(3L, "US", "F-A");
+
+    @Test
+    void numericScalePositionsRunFromWorstToBest() {
+        assertFalse(italy.isLetterScale());
+        assertEquals("IT", italy.getCountryCode());
+        assertEquals(0.0, italy.position("18"), DELTA);
+        assertEquals(0.5, italy.position(" 24 "), DELTA);
+        assertEquals(1.0, italy.position("30"), DELTA);
+        assertEquals("24", italy.gradeAt(0.5));
+        assertEquals("20.4", italy.gradeAt(0.2));
+    }
+
+    @Test
+    void reversedScaleHasItsBestGradeAtTheLowEnd() {
+        assertEquals(0.0, germany.position("4"), DELTA);
+        assertEquals(1.0, germany.position("1"), DELTA);
+        assertEquals(0.5, germany.position("2.5"), DELTA);
+        assertEquals("1", germany.gradeAt(1.0));
+        assertEquals("2.5", germany.gradeAt(italy.position("24")));
+    }
+
+    @Test
+    void letterScaleIncludesEveryLetterInBetween() {
+        assertTrue(usa.isLetterScale());
+        assertEquals(0.0, usa.position("F"), DELTA);
+        assertEquals(0.8, usa.position("b"), DELTA);
+        assertEquals(1.0, usa.position("A"), DELTA);
+        assertEquals("C", usa.gradeAt(usa.position("C")));
+        assertEquals("A", usa.gradeAt(italy.position("30")));
+    }
+
+    @Test
+    void gradesOutsideTheScaleAreRejected() {
+        assertThrows(BadRequestException.class, () -> italy.position("17"));
+        assertThrows(BadRequestException.class, () -> italy.position("31"));
+        assertThrows(BadRequestException.class, () -> germany.position("0.5"));
+        assertThrows(BadRequestException.class, () -> usa.position("G"));
+    }
+
+    @Test
+    void nonNumericGradesAreRejectedOnNumericScales() {
+        assertThrows(BadRequestException.class, () -> italy.position("twenty"));
+        assertThrows(BadRequestException.class, () -> italy.position(""));
+        assertThrows(BadRequestException.class, () -> italy.position("NaN"));
+        assertThrows(BadRequestException.class, () -> italy.position("Infinity"));
+        assertThrows(BadRequestException.class, () -> germany.position("-Infinity"));
+    }
+
+    @Test
+    void unconvertibleGradingSystemsDontCompile() {
+        assertNull(GradeScale.compile(4L, "XX", null));
+        assertNull(GradeScale.compile(4L, "XX", "N/A"));
+        assertNull(GradeScale.compile(4L, "XX", "10-10"));
+        assertNull(GradeScale.compile(4L, "XX", "-10"));
+        assertNull(GradeScale.compile(4L, "XX", "1-1e400"));
+    }
+}
@@ -0,0 +1,63 @@
+package com.ivancroce.backend.tools;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MatrixSheetReaderTest {
+
+    @TempDir
+    Path directory;
+
+    // Same shape as the bundled matrix: header rows, country rows, footnotes with column A empty
+    private Path workbook(String[][] rows) throws Exception {
+        Path file = directory.resolve("matrix.xlsx");
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(file)) {
+            Sheet sheet = workbook.createSheet();
+            for (int i = 0; i < rows.length; i++) {
+                Row row = sheet.createRow(i);
+                for (int j = 0; j < rows[i].length; j++) {
+                    if (rows[i][j] != null) row.createCell(j).setCellValue(rows[i][j]);
+                }
+            }
+            workbook.write(out);
+        }
+        return file;
+    }
+
+    private static boolean isCountryRow(MatrixRow row) {
+        return row.cell(0) != null && row.cell(1) != null && Character.isDigit(row.cell(1).charAt(0));
+    }
+
+    @Test
+    void rowsAfterAMalformedOneAreStillRead() throws Exception {
+        Path file = workbook(new String[][]{
+                {null, "YEARS OF COMPULSORY SCHOOLING", "DURATION (BA)"},
+                {"Austria", "13*", "3"},
+                {"Belgium", "n/a", "3"},
+                {},
+                {null, "Footnote about 12 or 13 years"},
+                {"Croatia", "12", "4"},
+        });
+        List<String> delivered = new ArrayList<>();
+        List<Integer> skipped = new ArrayList<>();
+
+        int count = MatrixSheetReader.read(file, MatrixSheetReaderTest::isCountryRow,
+                row -> delivered.add(row.cell(0)), row -> skipped.add(row.rowNumber()));
+
+        assertEquals(2, count);
+        assertEquals(List.of("Austria", "Croatia"), delivered);
+        // The header isn't reported and the blank row is ignored
+        assertEquals(List.of(3, 5), skipped);
+    }
+}
@@ -0,0 +1,18 @@
+-- A database as ddl-auto=update left it before the migrations existed (Hibernate's DDL and constraint names),
+-- with rows whose ids came from the IDENTITY columns
+create table countries (id bigint generated by default as identity, years_compulsory_schooling integer not null, country_code varchar(2), credit_ratio varchar(255), grading_system varchar(255) not null, name varchar(255) not null, primary key (id));
+create table bachelor_programs (credits_per_year integer not null, duration integer not null, eqf_level integer not null, is_special_program boolean not null, total_credits integer not null, country_id bigint, id bigint generated by default as identity, official_denomination varchar(255) not null, primary key (id));
+create table users (id bigint generated by default as identity, avatar_url varchar(255), email varchar(255) not null, first_name varchar(255) not null, last_name varchar(255) not null, password varchar(255) not null, role varchar(255) check (role in ('USER','ADMIN','STUDENT')), username varchar(255) not null, primary key (id));
+alter table if exists countries drop constraint if exists UK1pyiwrqimi3hnl3vtgsypj5r6;
+alter table if exists countries add constraint UK1pyiwrqimi3hnl3vtgsypj5r6 unique (name);
+alter table if exists users drop constraint if exists UKr43af9ap4edm43mmtq01oddj6;
+alter table if exists users add constraint UKr43af9ap4edm43mmtq01oddj6 unique (username);
+alter table if exists users drop constraint if exists UK6dotkott2kjsp8vw4d0m25fb7;
+alter table if exists users add constraint UK6dotkott2kjsp8vw4d0m25fb7 unique (email);
+alter table if exists bachelor_programs add constraint FKl3bfbvpk0k6e6hjdxgh9wb0he foreign key (country_id) references countries;
+
+insert into countries (name, years_compulsory_schooling, grading_system, credit_ratio, country_code) values ('Italy', 13, '18-30', '25 HOURS OF STUDENT WORK', 'IT');
+insert into countries (name, years_compulsory_schooling, grading_system, credit_ratio, country_code) values ('France', 12, '0-20', '25-30 HOURS OF STUDENT WORK', 'FR');
+insert into countries (id, name, years_compulsory_schooling, grading_system, credit_ratio, country_code) values (120, 'Spain', 12, '0-10', '25-30 HOURS OF STUDENT WORK', 'ES');
+insert into bachelor_programs (country_id, duration, is_special_program, credits_per_year, total_credits, eqf_level, official_denomination) values (1, 3, false, 60, 180, 6, 'Laurea');
+insert into bachelor_programs (country_id, duration, is_special_program, credits_per_year, total_credits, eqf_level, official_denomination) values (2, 3, false, 60, 180, 6, 'Licence');
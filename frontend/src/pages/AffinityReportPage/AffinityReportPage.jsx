@@ -7,22 +7,20 @@ import { Chart as ChartJS, ArcElement, Tooltip, Legend } from "chart.js";
 import { Doughnut } from "react-chartjs-2";
 import { BsInfoCircle } from "react-icons/bs";
 import FeedbackModal from "../../components/FeedbackModal/FeedbackModal";
-import { useRef, useState } from "react";
-import html2canvas from "html2canvas";
-import jsPDF from "jspdf";
+import { useState } from "react";
+import api from "../../api/axios";
 
 ChartJS.register(ArcElement, Tooltip, Legend);
 
 const AffinityReportPage = () => {
   const location = useLocation();
   const navigate = useNavigate();
-  const reportRef = useRef();
 
   const [showFeedback, setShowFeedback] = useState(false);
 
-  const { country1, country2 } = location.state || {};
+  const { country1, country2, affinity } = location.state || {};
 
-  if (!country1 || !country2) {
+  if (!country1 || !country2 || !affinity) {
     return (
       <Container className="mt-5">
         <Alert variant="warning" className="text-center">
@@ -36,65 +34,23 @@ const AffinityReportPage = () => {
     );
   }
 
-  // Calculate affinity for each category
-  const calculateDurationAffinity = (dur1, dur2) => {
-    const diff = Math.abs(dur1 - dur2);
-    if (diff === 0) return { level: "EQUIVALENT", color: "success" };
-    if (diff === 1) return { level: "MODERATE", color: "warning" };
-    return { level: "LOW", color: "danger" };
+  // Affinity levels and percentage are computed by the backend (GET /api/affinity/{countryA}/{countryB})
+  const levelColors = {
+    EQUIVALENT: "success",
+    MODERATE: "warning",
+    LOW: "danger",
+    "CAN ALWAYS BE CONVERTED": "warning"
   };
 
-  const calculateCreditsAffinity = (credits1, credits2) => {
-    const diff = Math.abs(credits1 - credits2);
-    const percentage = (diff / Math.max(credits1, credits2)) * 100;
-    if (percentage <= 10) return { level: "EQUIVALENT", color: "success" };
-    if (percentage <= 25) return { level: "MODERATE", color: "warning" };
-    return { level: "LOW", color: "danger" };
+  const overallBreakdowns = {
+    EQUIVALENT: "High compatibility",
+    MODERATE: "Moderate compatibility",
+    LOW: "Low compatibility"
   };
 
-  const calculateCreditRatioAffinity = (ratio1, ratio2) => {
-    if (ratio1 === ratio2) return { level: "EQUIVALENT", color: "success" };
-    return { level: "MODERATE", color: "warning" };
-  };
-
-  // It always return CAN ALWAYS BE CONVERTED at the moment
-  const calculateGradingAffinity = () => {
-    return { level: "CAN ALWAYS BE CONVERTED", color: "warning" };
-  };
-
-  const calculateEqfAffinity = (eqf1, eqf2) => {
-    if (eqf1 === eqf2) return { level: "EQUIVALENT", color: "success" };
-    const diff = Math.abs(eqf1 - eqf2);
-    if (diff === 1) return { level: "MODERATE", color: "warning" };
-    return { level: "LOW", color: "danger" };
-  };
-
-  const calculateAffinityPercentage = (affinities) => {
-    const comparableAffinities = affinities.filter((affinity) => affinity.level !== "CAN ALWAYS BE CONVERTED" && affinity.level !== "");
-
-    const equivalentCount = comparableAffinities.filter((a) => a.level === "EQUIVALENT").length;
-    const moderateCount = comparableAffinities.filter((a) => a.level === "MODERATE").length;
-    const totalCount = comparableAffinities.length;
-
-    const score = (equivalentCount * 100 + moderateCount * 60) / totalCount;
-    return Math.round(score);
-  };
-
-  const calculateOverallAffinity = (affinities) => {
-    const comparableAffinities = affinities.filter((affinity) => affinity.level !== "CAN ALWAYS BE CONVERTED" && affinity.level !== "");
-
-    const equivalentCount = comparableAffinities.filter((a) => a.level === "EQUIVALENT").length;
-    const lowCount = comparableAffinities.filter((a) => a.level === "LOW").length;
-
-    if (lowCount > 0) {
-      return { level: "LOW", color: "danger", breakdown: "Low compatibility" };
-    }
-
-    if (equivalentCount === comparableAffinities.length) {
-      return { level: "EQUIVALENT", color: "success", breakdown: "High compatibility" };
-    }
-
-    return { level: "MODERATE", color: "warning", breakdown: "Moderate compatibility" };
+  const getCategoryAffinity = (category) => {
+    const { level } = affinity.categories.find((c) => c.category === category);
+    return { level, color: levelColors[level] };
   };
 
   const handlePrint = () => {
@@ -144,64 +100,37 @@ const AffinityReportPage = () => {
 
   const handleGeneratePDF = async () => {
     try {
-      const element = reportRef.current;
-
-      const elementsToHide = document.querySelectorAll(".no-print, .d-print-none");
-      elementsToHide.forEach((el) => (el.style.display = "none"));
-
-      const canvas = await html2canvas(element, {
-        scale: 2,
-        useCORS: true,
-        allowTaint: true,
-        backgroundColor: "#ffffff",
-        width: element.scrollWidth,
-        height: element.scrollHeight
-      });
-
-      elementsToHide.forEach((el) => (el.style.display = ""));
-
-      const imgData = canvas.toDataURL("image/png");
-
-      const pdf = new jsPDF({
-        orientation: "portrait",
-        unit: "mm",
-        format: "a4"
-      });
-
-      const imgWidth = 210;
-      const pageHeight = 295;
-      const imgHeight = (canvas.height * imgWidth) / canvas.width;
-      let heightLeft = imgHeight;
-      let position = 0;
-
-      pdf.addImage(imgData, "PNG", 0, position, imgWidth, imgHeight);
-      heightLeft -= pageHeight;
-
-      while (heightLeft >= 0) {
-        position = heightLeft - imgHeight;
-        pdf.addPage();
-        pdf.addImage(imgData, "PNG", 0, position, imgWidth, imgHeight);
-        heightLeft -= pageHeight;
-      }
+      // The PDF is rendered (and cached) by the backend
+      const response = await api.get(`/affinity/${country1.id}/${country2.id}/report.pdf`, { responseType: "blob" });
 
       const filename = `affinity-report-${country1.name.toLowerCase().replace(/\s+/g, "-")}-vs-${country2.name.toLowerCase().replace(/\s+/g, "-")}.pdf`;
 
-      pdf.save(filename);
+      const url = URL.createObjectURL(response.data);
+      const link = document.createElement("a");
+      link.href = url;
+      link.download = filename;
+      document.body.appendChild(link);
+      link.click();
+      document.body.removeChild(link);
+      URL.revokeObjectURL(url);
     } catch (error) {
       console.error("Error generating PDF:", error);
       alert("Error generating PDF. Please try again.");
     }
   };
 
-  const durationAffinity = calculateDurationAffinity(country1.program.duration, country2.program.duration);
-  const creditsAffinity = calculateCreditsAffinity(country1.program.totalCredits, country2.program.totalCredits);
-  const creditRatioAffinity = calculateCreditRatioAffinity(country1.creditRatio, country2.creditRatio);
-  const gradingAffinity = calculateGradingAffinity(country1.gradingSystem, country2.gradingSystem);
-  const eqfAffinity = calculateEqfAffinity(country1.program.eqfLevel, country2.program.eqfLevel);
-
-  const affinitiesForOverall = [durationAffinity, creditsAffinity, creditRatioAffinity, eqfAffinity];
-  const affinityPercentage = calculateAffinityPercentage(affinitiesForOverall);
-  const overallAffinity = calculateOverallAffinity(affinitiesForOverall);
+  const durationAffinity = getCategoryAffinity("DURATION");
+  const creditsAffinity = getCategoryAffinity("CREDITS");
+  const creditRatioAffinity = getCategoryAffinity("CREDIT_RATIO");
+  const gradingAffinity = getCategoryAffinity("GRADING");
+  const eqfAffinity = getCategoryAffinity("EQF");
+
+  const affinityPercentage = affinity.percentage;
+  const overallAffinity = {
+    level: affinity.overall,
+    color: levelColors[affinity.overall],
+    breakdown: overallBreakdowns[affinity.overall]
+  };
 
   // For Poland having 3.5 Duration BA
   const formatDuration = (country, duration) => {
@@ -279,7 +208,7 @@ const AffinityReportPage = () => {
       </Row>
 
       {/* Main Report Card */}
-      <div ref={reportRef} className="report-content">
+      <div className="report-content">
         <Card className="shadow-lg border-0">
           <Card.Header className="bg-secondary text-white text-center py-4">
             <h2 className="mb-0 print-title">
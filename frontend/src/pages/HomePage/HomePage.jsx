@@ -46,27 +46,13 @@ const HomePage = () => {
     setIsGeneratingReport(true);
 
     try {
-      const [country1Data, country2Data, program1Data, program2Data, special1Data, special2Data] = await Promise.all([
-        api.get(`/countries/${country1}`),
-        api.get(`/countries/${country2}`),
-        api.get(`/countries/${country1}/representative-program`),
-        api.get(`/countries/${country2}/representative-program`),
-        api.get(`/countries/${country1}/has-special-program`),
-        api.get(`/countries/${country2}/has-special-program`)
-      ]);
+      const { data: affinity } = await api.get(`/affinity/${country1}/${country2}`);
 
       navigate("/affinity-report", {
         state: {
-          country1: {
-            ...country1Data.data,
-            program: program1Data.data,
-            hasSpecialPrograms: special1Data.data
-          },
-          country2: {
-            ...country2Data.data,
-            program: program2Data.data,
-            hasSpecialPrograms: special2Data.data
-          }
+          country1: affinity.countryA,
+          country2: affinity.countryB,
+          affinity
         }
       });
     } catch (error) {